@@ -0,0 +1,9 @@
+package ru.practicum.service;
+
+public abstract class CacheNames {
+    public static final String CATEGORIES = "categories";
+
+    public static final String USERS = "users";
+
+    public static final String LOCATIONS = "locations";
+}
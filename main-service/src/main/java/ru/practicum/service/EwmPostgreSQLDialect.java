@@ -0,0 +1,26 @@
+package ru.practicum.service;
+
+import org.hibernate.dialect.PostgreSQL10Dialect;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Adds the full-text search functions used by public event search. Both render the same
+ * {@code to_tsvector} expression as the GIN index in the PostgreSQL migrations, so the planner can use it.
+ * {@link #GEO_WITHIN} likewise renders the {@code point(lon, lat)} of the GiST index on locations.
+ */
+public class EwmPostgreSQLDialect extends PostgreSQL10Dialect {
+    public static final String TEXT_MATCH = "text_match";
+    public static final String TEXT_RANK = "text_rank";
+    public static final String GEO_WITHIN = "geo_within";
+
+    public EwmPostgreSQLDialect() {
+        super();
+        registerFunction(TEXT_MATCH, new SQLFunctionTemplate(StandardBasicTypes.BOOLEAN,
+                "(to_tsvector('simple', ?1 || ' ' || ?2) @@ plainto_tsquery('simple', ?3))"));
+        registerFunction(TEXT_RANK, new SQLFunctionTemplate(StandardBasicTypes.DOUBLE,
+                "ts_rank(to_tsvector('simple', ?1 || ' ' || ?2), plainto_tsquery('simple', ?3))"));
+        registerFunction(GEO_WITHIN, new SQLFunctionTemplate(StandardBasicTypes.BOOLEAN,
+                "(point(?1, ?2) <@ box(point(?3, ?4), point(?5, ?6)))"));
+    }
+}
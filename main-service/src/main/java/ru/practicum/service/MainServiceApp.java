@@ -2,7 +2,11 @@ package ru.practicum.service;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
+@EnableCaching
+@EnableScheduling
 @SpringBootApplication(scanBasePackages = {"ru.practicum.client", "ru.practicum.service"})
 public class MainServiceApp {
     public static void main(String[] args) {
@@ -0,0 +1,12 @@
+package ru.practicum.service.category.dto;
+
+import lombok.Value;
+
+/**
+ * Immutable copy of a category kept in the categories cache. Callers get a new {@code Category} built from it.
+ */
+@Value
+public class CategoryProjection {
+    Long id;
+    String name;
+}
@@ -2,6 +2,7 @@ package ru.practicum.service.category.mapper;
 
 import org.mapstruct.Mapper;
 import ru.practicum.service.category.dto.CategoryDto;
+import ru.practicum.service.category.dto.CategoryProjection;
 import ru.practicum.service.category.dto.NewCategoryDto;
 import ru.practicum.service.category.model.Category;
 
@@ -10,4 +11,6 @@ public interface CategoryMapper {
     CategoryDto fromModelToDto(Category category);
 
     Category fromNewDtoToModel(NewCategoryDto newCategoryDto);
+
+    Category fromProjectionToModel(CategoryProjection category);
 }
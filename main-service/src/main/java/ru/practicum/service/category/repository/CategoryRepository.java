@@ -1,7 +1,17 @@
 package ru.practicum.service.category.repository;
 
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.service.CacheNames;
+import ru.practicum.service.category.dto.CategoryProjection;
 import ru.practicum.service.category.model.Category;
 
+import java.util.Optional;
+
 public interface CategoryRepository extends JpaRepository<Category, Long> {
+    @Cacheable(cacheNames = CacheNames.CATEGORIES, key = "#p0", unless = "#result == null")
+    @Query(value = "SELECT new ru.practicum.service.category.dto.CategoryProjection(c.id, c.name) " +
+            "FROM Category AS c WHERE c.id = ?1")
+    Optional<CategoryProjection> findProjectionById(Long catId);
 }
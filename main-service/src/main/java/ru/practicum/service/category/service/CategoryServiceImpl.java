@@ -4,10 +4,12 @@ import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.service.CacheNames;
 import ru.practicum.service.category.dto.CategoryDto;
 import ru.practicum.service.category.dto.NewCategoryDto;
 import ru.practicum.service.category.mapper.CategoryMapper;
@@ -38,6 +40,7 @@ public class CategoryServiceImpl implements CategoryService {
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheNames.CATEGORIES, key = "#p0")
     public CategoryDto updateCategory(Long catId, CategoryDto categoryDto) {
         log.info("Method updateCategory invoke");
         Category updatedCategory = categoryRepository.findById(catId).orElseThrow(()
@@ -48,6 +51,7 @@ public class CategoryServiceImpl implements CategoryService {
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheNames.CATEGORIES, key = "#p0")
     public void deleteCategory(Long catId) {
         log.info("Method deleteCategory invoke");
         categoryRepository.delete(categoryRepository.findById(catId).orElseThrow(
@@ -74,7 +78,7 @@ public class CategoryServiceImpl implements CategoryService {
     @Override
     public Category getCategoryById(Long catId) {
         log.info("Method getCategoryById invoke");
-        return categoryRepository.findById(catId).orElseThrow(()
-                -> new EntityNotFoundException("Category not found"));
+        return categoryMapper.fromProjectionToModel(categoryRepository.findProjectionById(catId).orElseThrow(()
+                -> new EntityNotFoundException("Category not found")));
     }
 }
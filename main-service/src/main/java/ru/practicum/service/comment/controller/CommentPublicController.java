@@ -9,6 +9,7 @@ import org.springframework.web.bind.annotation.*;
 import ru.practicum.service.comment.dto.CommentDto;
 import ru.practicum.service.comment.service.CommentService;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 import java.util.List;
@@ -29,8 +30,10 @@ public class CommentPublicController {
 
     @GetMapping
     public List<CommentDto> getCommentsForEventPublic(@RequestParam Long eventId,
+                                                      @RequestParam(required = false) String after,
                                                       @RequestParam(required = false, defaultValue = "0") @PositiveOrZero Integer from,
-                                                      @RequestParam(required = false, defaultValue = "10") @Positive Integer size) {
-        return commentService.getCommentsForEventPublic(eventId, from, size);
+                                                      @RequestParam(required = false, defaultValue = "10") @Positive Integer size,
+                                                      HttpServletResponse response) {
+        return commentService.getCommentsForEventPublic(eventId, after, from, size).writeTo(response);
     }
 }
@@ -1,15 +1,22 @@
 package ru.practicum.service.comment.repository;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import ru.practicum.service.comment.model.Comment;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
     List<Comment> findAllByEventId(Long eventId, Pageable page);
 
+    List<Comment> findAllByEventIdAndIdGreaterThanOrderByIdAsc(Long eventId, Long id, Pageable page);
+
     List<Comment> findAllByAuthorIdAndEventId(Long userId, Long eventId, Pageable page);
 
     List<Comment> findAllByAuthorId(Long userId, Pageable page);
+
+    @EntityGraph(attributePaths = "author")
+    Optional<Comment> findWithAuthorById(Long commentId);
 }
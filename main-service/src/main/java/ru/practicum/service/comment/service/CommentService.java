@@ -2,6 +2,7 @@ package ru.practicum.service.comment.service;
 
 import ru.practicum.service.comment.dto.CommentDto;
 import ru.practicum.service.comment.dto.NewCommentDto;
+import ru.practicum.service.pagination.CursorPage;
 
 import java.util.List;
 
@@ -12,7 +13,7 @@ public interface CommentService {
 
     CommentDto getCommentByIdPublic(Long commentId);
 
-    List<CommentDto> getCommentsForEventPublic(Long eventId, Integer from, Integer size);
+    CursorPage<CommentDto> getCommentsForEventPublic(Long eventId, String after, Integer from, Integer size);
 
     CommentDto addCommentPrivate(Long userId, Long eventId, NewCommentDto newCommentDto);
 
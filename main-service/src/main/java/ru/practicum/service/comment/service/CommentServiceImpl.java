@@ -6,6 +6,7 @@ import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.service.comment.dto.CommentDto;
@@ -18,6 +19,8 @@ import ru.practicum.service.event.model.Event;
 import ru.practicum.service.event.service.EventService;
 import ru.practicum.service.exception.ConflictException;
 import ru.practicum.service.exception.EntityNotFoundException;
+import ru.practicum.service.pagination.Cursor;
+import ru.practicum.service.pagination.CursorPage;
 import ru.practicum.service.user.model.User;
 import ru.practicum.service.user.service.UserService;
 
@@ -63,13 +66,20 @@ public class CommentServiceImpl implements CommentService {
     }
 
     @Override
-    public List<CommentDto> getCommentsForEventPublic(Long eventId, Integer from, Integer size) {
+    public CursorPage<CommentDto> getCommentsForEventPublic(Long eventId, String after, Integer from, Integer size) {
         log.info("Method getCommentsForEventPublic invoke");
-        eventService.getEvent(eventId);
-        Pageable page = PageRequest.of(from / size, size);
-        List<Comment> commentsListForEvent = commentRepository.findAllByEventId(eventId, page);
+        Cursor cursor = Cursor.decode(after, Cursor.ID_SORT);
+        List<Comment> commentsListForEvent = cursor != null
+                ? commentRepository.findAllByEventIdAndIdGreaterThanOrderByIdAsc(eventId, cursor.getId(),
+                        PageRequest.of(0, size))
+                : commentRepository.findAllByEventId(eventId, PageRequest.of(from / size, size, Sort.by("id")));
+        if (commentsListForEvent.isEmpty()) {
+            eventService.checkEventExists(eventId);
+        }
         log.info("Get comments for event id = {}", eventId);
-        return commentsListForEvent.stream().map(commentMapper::fromModelToDto).collect(Collectors.toList());
+        return new CursorPage<>(commentsListForEvent.stream().map(commentMapper::fromModelToDto)
+                .collect(Collectors.toList()),
+                Cursor.next(commentsListForEvent, size, comment -> Cursor.byId(comment.getId())));
     }
 
     @Override
@@ -90,9 +100,7 @@ public class CommentServiceImpl implements CommentService {
     @Transactional
     public CommentDto updateCommentPrivate(Long userId, Long commentId, NewCommentDto newCommentDto) {
         log.info("Method updateCommentPrivate invoke");
-        userService.findUserById(userId);
-        validateUserIsTheAuthor(userId, commentId);
-        Comment comment = findComment(commentId);
+        Comment comment = findCommentByAuthor(userId, commentId);
         comment.setText(newCommentDto.getText());
         CommentDto updatedComment = commentMapper.fromModelToDto(commentRepository.save(comment));
         log.info("Comment has been updated {}", updatedComment);
@@ -102,15 +110,19 @@ public class CommentServiceImpl implements CommentService {
     @Override
     public List<CommentDto> getUserCommentsPrivate(Long userId, Long eventId, Integer from, Integer size) {
         log.info("Method getUserCommentsPrivate invoke");
-        userService.findUserById(userId);
         List<Comment> comments;
         Pageable page = PageRequest.of(from / size, size);
         if (eventId != null) {
-            eventService.getEvent(eventId);
             comments = commentRepository.findAllByAuthorIdAndEventId(userId, eventId, page);
         } else {
             comments = commentRepository.findAllByAuthorId(userId, page);
         }
+        if (comments.isEmpty()) {
+            userService.checkUserExists(userId);
+            if (eventId != null) {
+                eventService.checkEventExists(eventId);
+            }
+        }
         return comments.stream().map(commentMapper::fromModelToDto).collect(Collectors.toList());
     }
 
@@ -118,8 +130,7 @@ public class CommentServiceImpl implements CommentService {
     @Transactional
     public void deleteCommentByUser(Long userId, Long commentId) {
         log.info("Method deleteCommentByUser invoke");
-        validateUserIsTheAuthor(userId, commentId);
-        commentRepository.delete(findComment(commentId));
+        commentRepository.delete(findCommentByAuthor(userId, commentId));
         log.info("Category {} deleted", commentId);
     }
 
@@ -128,11 +139,13 @@ public class CommentServiceImpl implements CommentService {
                 () -> new EntityNotFoundException("Comment not found"));
     }
 
-    private void validateUserIsTheAuthor(Long userId, Long commentId) {
-        userService.findUserById(userId);
-        Comment comment = findComment(commentId);
+    private Comment findCommentByAuthor(Long userId, Long commentId) {
+        Comment comment = commentRepository.findWithAuthorById(commentId).orElseThrow(
+                () -> new EntityNotFoundException("Comment not found"));
         if (!userId.equals(comment.getAuthor().getId())) {
+            userService.checkUserExists(userId);
             throw new ConflictException("User is not the author");
         }
+        return comment;
     }
 }
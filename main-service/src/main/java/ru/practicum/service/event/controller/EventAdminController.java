@@ -13,6 +13,7 @@ import ru.practicum.service.event.dto.UpdateEventAdminRequest;
 import ru.practicum.service.event.enums.EventState;
 import ru.practicum.service.event.service.EventService;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
@@ -34,9 +35,12 @@ public class EventAdminController {
                                              @RequestParam(required = false) List<Long> categories,
                                              @RequestParam(required = false) @DateTimeFormat(pattern = CommonConstants.DATE_FORMAT) LocalDateTime rangeStart,
                                              @RequestParam(required = false) @DateTimeFormat(pattern = CommonConstants.DATE_FORMAT) LocalDateTime rangeEnd,
+                                             @RequestParam(required = false) String after,
                                              @RequestParam(required = false, defaultValue = "0") @PositiveOrZero Integer from,
-                                             @RequestParam(required = false, defaultValue = "10") @Positive Integer size) {
-        return eventService.getEventsAdmin(users, states, categories, rangeStart, rangeEnd, from, size);
+                                             @RequestParam(required = false, defaultValue = "10") @Positive Integer size,
+                                             HttpServletResponse response) {
+        return eventService.getEventsAdmin(users, states, categories, rangeStart, rangeEnd, after, from, size)
+                .writeTo(response);
     }
 
     @PatchMapping("/{eventId}")
@@ -10,10 +10,14 @@ import org.springframework.web.bind.annotation.*;
 import ru.practicum.service.CommonConstants;
 import ru.practicum.service.event.dto.EventFullDto;
 import ru.practicum.service.event.dto.EventShortDto;
+import ru.practicum.service.event.dto.GeoArea;
 import ru.practicum.service.event.enums.EventSortType;
 import ru.practicum.service.event.service.EventService;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 import java.time.LocalDateTime;
@@ -35,11 +39,17 @@ public class EventPublicController {
                                                @RequestParam(required = false) @DateTimeFormat(pattern = CommonConstants.DATE_FORMAT) LocalDateTime rangeStart,
                                                @RequestParam(required = false) @DateTimeFormat(pattern = CommonConstants.DATE_FORMAT) LocalDateTime rangeEnd,
                                                @RequestParam(required = false, defaultValue = "false") Boolean onlyAvailable,
+                                               @RequestParam(required = false) @DecimalMin("-90") @DecimalMax("90") Float lat,
+                                               @RequestParam(required = false) @DecimalMin("-180") @DecimalMax("180") Float lon,
+                                               @RequestParam(required = false) @Positive Float radius,
                                                @RequestParam(required = false) EventSortType sort,
+                                               @RequestParam(required = false) String after,
                                                @RequestParam(required = false, defaultValue = "0") @PositiveOrZero Integer from,
                                                @RequestParam(required = false, defaultValue = "10") @Positive Integer size,
-                                               HttpServletRequest httpServletRequest) {
-        return eventService.getEventsPublic(text, categories, paid, rangeStart, rangeEnd, onlyAvailable, sort, from, size, httpServletRequest);
+                                               HttpServletRequest httpServletRequest,
+                                               HttpServletResponse httpServletResponse) {
+        return eventService.getEventsPublic(text, categories, paid, rangeStart, rangeEnd, onlyAvailable,
+                GeoArea.of(lat, lon, radius), sort, after, from, size, httpServletRequest).writeTo(httpServletResponse);
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,25 @@
+package ru.practicum.service.event.dto;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Columns of an event needed for {@link EventShortDto}, selected directly by list queries instead of
+ * loading {@code Event} entities.
+ */
+@Value
+public class EventShortProjection {
+    Long id;
+    String annotation;
+    Long categoryId;
+    String categoryName;
+    Long confirmedRequests;
+    LocalDateTime eventDate;
+    Long initiatorId;
+    String initiatorName;
+    Boolean paid;
+    String title;
+    LocalDateTime publishedOn;
+    Long views;
+}
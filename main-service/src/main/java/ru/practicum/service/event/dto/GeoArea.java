@@ -0,0 +1,29 @@
+package ru.practicum.service.event.dto;
+
+import lombok.Value;
+
+/**
+ * Circle on the Earth's surface, {@code radius} in kilometres around {@code lat}, {@code lon} in degrees.
+ */
+@Value
+public class GeoArea {
+    public static final double EARTH_RADIUS_KM = 6371.0;
+
+    double lat;
+    double lon;
+    double radius;
+
+    public static GeoArea of(Float lat, Float lon, Float radius) {
+        if (lat == null && lon == null && radius == null) {
+            return null;
+        }
+        if (lat == null || lon == null || radius == null) {
+            throw new IllegalArgumentException("lat, lon and radius must be set together");
+        }
+        return new GeoArea(lat, lon, radius);
+    }
+
+    public double angularRadius() {
+        return radius / EARTH_RADIUS_KM;
+    }
+}
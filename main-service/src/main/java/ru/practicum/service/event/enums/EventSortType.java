@@ -2,5 +2,6 @@ package ru.practicum.service.event.enums;
 
 public enum EventSortType {
     EVENT_DATE,
-    VIEWS
+    VIEWS,
+    RELEVANCE
 }
@@ -7,6 +7,7 @@ import ru.practicum.service.category.mapper.CategoryMapper;
 import ru.practicum.service.category.model.Category;
 import ru.practicum.service.event.dto.EventFullDto;
 import ru.practicum.service.event.dto.EventShortDto;
+import ru.practicum.service.event.dto.EventShortProjection;
 import ru.practicum.service.event.dto.NewEventDto;
 import ru.practicum.service.event.model.Event;
 import ru.practicum.service.event.model.Location;
@@ -21,9 +22,21 @@ public interface EventMapper {
     @Mapping(target = "createdOn", expression = "java(java.time.LocalDateTime.now())", dateFormat = CommonConstants.DATE_FORMAT)
     @Mapping(target = "state", constant = "PENDING")
     @Mapping(target = "initiator", expression = "java(initiator)")
+    @Mapping(target = "location", expression = "java(location)")
+    @Mapping(target = "confirmedRequests", expression = "java(0L)")
+    @Mapping(target = "views", expression = "java(0L)")
     Event fromDtoToModel(NewEventDto newEventDto, User initiator, Category category, Location location);
 
-    EventFullDto fromModelToFullDto(Event event, Long confirmedRequests, Long views);
+    @Mapping(target = "views", expression = "java(views)")
+    EventFullDto fromModelToFullDto(Event event, Long views);
 
-    EventShortDto fromModelToShortDto(Event event, Long confirmedRequests, Long views);
+    @Mapping(target = "views", expression = "java(views)")
+    EventShortDto fromModelToShortDto(Event event, Long views);
+
+    @Mapping(target = "category", expression = "java(new ru.practicum.service.category.dto.CategoryDto(" +
+            "event.getCategoryId(), event.getCategoryName()))")
+    @Mapping(target = "initiator", expression = "java(new ru.practicum.service.user.dto.UserShortDto(" +
+            "event.getInitiatorId(), event.getInitiatorName()))")
+    @Mapping(target = "views", expression = "java(views)")
+    EventShortDto fromProjectionToShortDto(EventShortProjection event, Long views);
 }
@@ -15,12 +15,18 @@ import java.time.LocalDateTime;
 
 @Table(name = "events", schema = "public")
 @Entity
+@NamedEntityGraph(name = Event.WITH_DETAILS, attributeNodes = {
+        @NamedAttributeNode("category"),
+        @NamedAttributeNode("initiator"),
+        @NamedAttributeNode("location")})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class Event {
+    public static final String WITH_DETAILS = "Event.withDetails";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     Long id;
@@ -50,6 +56,10 @@ public class Event {
     Boolean paid;
     @Column(name = "participant_limit")
     Long participantLimit;
+    @Column(name = "confirmed_requests", nullable = false, updatable = false)
+    Long confirmedRequests = 0L;
+    @Column(nullable = false, updatable = false)
+    Long views = 0L;
     @Column(name = "published_on")
     LocalDateTime publishedOn;
     @Column(name = "request_moderation")
@@ -5,7 +5,7 @@ import lombok.experimental.FieldDefaults;
 
 import javax.persistence.*;
 
-@Table(name = "locations", schema = "public")
+@Table(name = "locations", schema = "public", uniqueConstraints = @UniqueConstraint(columnNames = {"lat", "lon"}))
 @Entity
 @Getter
 @Setter
@@ -1,15 +1,21 @@
 package ru.practicum.service.event.repository;
 
+import ru.practicum.service.event.dto.EventShortProjection;
+import ru.practicum.service.event.dto.GeoArea;
+import ru.practicum.service.event.enums.EventSortType;
 import ru.practicum.service.event.enums.EventState;
 import ru.practicum.service.event.model.Event;
+import ru.practicum.service.pagination.Cursor;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 public interface EventCustomRepository {
-    List<Event> findEventsByPublic(String text, List<Long> categories, Boolean paid, LocalDateTime rangeStart,
-                                LocalDateTime rangeEnd, Integer from, Integer size);
+    List<EventShortProjection> findEventsByPublic(String text, List<Long> categories, Boolean paid, LocalDateTime rangeStart,
+                                LocalDateTime rangeEnd, Boolean onlyAvailable, GeoArea area,
+                                EventSortType sort, Cursor after, Integer from, Integer size);
 
     List<Event> findEventsByAdmin(List<Long> users, List<EventState> states, List<Long> categories,
-                                  LocalDateTime rangeStart, LocalDateTime rangeEnd, Integer from, Integer size);
+                                  LocalDateTime rangeStart, LocalDateTime rangeEnd, Cursor after,
+                                  Integer from, Integer size);
 }
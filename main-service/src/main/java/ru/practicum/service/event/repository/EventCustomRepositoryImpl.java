@@ -2,13 +2,27 @@ package ru.practicum.service.event.repository;
 
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import ru.practicum.service.EwmPostgreSQLDialect;
+import ru.practicum.service.category.model.Category;
+import ru.practicum.service.event.dto.EventShortProjection;
+import ru.practicum.service.event.dto.GeoArea;
+import ru.practicum.service.event.enums.EventSortType;
 import ru.practicum.service.event.enums.EventState;
 import ru.practicum.service.event.model.Event;
+import ru.practicum.service.event.model.Location;
+import ru.practicum.service.pagination.Cursor;
+import ru.practicum.service.user.model.User;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 import java.time.LocalDateTime;
@@ -16,22 +30,48 @@ import java.util.List;
 
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class EventCustomRepositoryImpl implements EventCustomRepository {
+    static final String LOAD_GRAPH = "javax.persistence.loadgraph";
+
     @PersistenceContext
     EntityManager entityManager;
+    @Value("${events.search.full-text}")
+    boolean fullTextSearch;
+    @Value("${events.search.geo-index}")
+    boolean geoIndex;
 
-    public List<Event> findEventsByPublic(String text, List<Long> categories, Boolean paid, LocalDateTime rangeStart,
-                                        LocalDateTime rangeEnd, Integer from, Integer size) {
+    /**
+     * With {@code events.search.full-text} the text is matched against the PostgreSQL GIN index and
+     * {@link EventSortType#RELEVANCE} orders by {@code ts_rank}; otherwise it falls back to {@code LIKE} and
+     * ranks annotation matches above description-only ones. {@code onlyAvailable} and the VIEWS order use the
+     * counters stored on events, so both are applied before paging. With {@code after} the page starts past
+     * the cursor's (sort key, id) instead of at {@code from}. With {@code area} only events located within it
+     * are returned. Rows are selected straight into
+     * {@link EventShortProjection}, without loading descriptions or managed entities.
+     */
+    public List<EventShortProjection> findEventsByPublic(String text, List<Long> categories, Boolean paid, LocalDateTime rangeStart,
+                                        LocalDateTime rangeEnd, Boolean onlyAvailable, GeoArea area,
+                                        EventSortType sort, Cursor after, Integer from, Integer size) {
         CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-        CriteriaQuery<Event> criteriaQuery = criteriaBuilder.createQuery(Event.class);
+        CriteriaQuery<EventShortProjection> criteriaQuery = criteriaBuilder.createQuery(EventShortProjection.class);
         Root<Event> root = criteriaQuery.from(Event.class);
+        Join<Event, Category> category = root.join("category", JoinType.LEFT);
+        Join<Event, User> initiator = root.join("initiator", JoinType.LEFT);
         Predicate predicate = criteriaBuilder.conjunction();
-        if (text != null && !text.isBlank()) {
+        Expression<Double> relevance = null;
+        if (text != null && !text.isBlank() && fullTextSearch) {
+            predicate = criteriaBuilder.and(predicate, criteriaBuilder.equal(criteriaBuilder.function(
+                    EwmPostgreSQLDialect.TEXT_MATCH, Boolean.class, root.get("annotation"), root.get("description"),
+                    criteriaBuilder.literal(text)), true));
+            relevance = criteriaBuilder.function(EwmPostgreSQLDialect.TEXT_RANK, Double.class, root.get("annotation"),
+                    root.get("description"), criteriaBuilder.literal(text));
+        } else if (text != null && !text.isBlank()) {
             Predicate annotation = criteriaBuilder.like(criteriaBuilder.lower(root.get("annotation")), "%" + text.toLowerCase() + "%");
             Predicate description = criteriaBuilder.like(criteriaBuilder.lower(root.get("description")), "%" + text.toLowerCase() + "%");
             predicate = criteriaBuilder.and(predicate, criteriaBuilder.or(annotation, description));
+            relevance = criteriaBuilder.<Double>selectCase().when(annotation, 1.0).otherwise(0.0);
         }
         if (categories != null && !categories.isEmpty()) {
-            predicate = criteriaBuilder.and(predicate, root.get("category").in(categories));
+            predicate = criteriaBuilder.and(predicate, category.get("id").in(categories));
         }
         if (paid != null) {
             predicate = criteriaBuilder.and(predicate, root.get("paid").in(paid));
@@ -46,13 +86,36 @@ public class EventCustomRepositoryImpl implements EventCustomRepository {
                 predicate = criteriaBuilder.and(predicate, criteriaBuilder.lessThanOrEqualTo(root.get("eventDate"), rangeEnd));
             }
         }
+        if (onlyAvailable != null && onlyAvailable) {
+            predicate = criteriaBuilder.and(predicate, criteriaBuilder.or(
+                    criteriaBuilder.equal(root.get("participantLimit"), 0),
+                    criteriaBuilder.lessThan(root.get("confirmedRequests"), root.get("participantLimit"))));
+        }
+        if (area != null) {
+            predicate = criteriaBuilder.and(predicate, near(criteriaBuilder, root.join("location"), area));
+        }
         predicate = criteriaBuilder.and(predicate, root.get("state").in(EventState.PUBLISHED));
-        criteriaQuery.select(root).where(predicate);
-        return entityManager.createQuery(criteriaQuery).setFirstResult(from).setMaxResults(size).getResultList();
+        if (after != null) {
+            predicate = criteriaBuilder.and(predicate, seek(criteriaBuilder, root, sort, after));
+        }
+        criteriaQuery.select(criteriaBuilder.construct(EventShortProjection.class, root.get("id"),
+                root.get("annotation"), category.get("id"), category.get("name"), root.get("confirmedRequests"),
+                root.get("eventDate"), initiator.get("id"), initiator.get("name"), root.get("paid"), root.get("title"),
+                root.get("publishedOn"), root.get("views"))).where(predicate);
+        if (sort == EventSortType.RELEVANCE && relevance != null) {
+            criteriaQuery.orderBy(criteriaBuilder.desc(relevance), criteriaBuilder.asc(root.get("id")));
+        } else if (sort == EventSortType.VIEWS) {
+            criteriaQuery.orderBy(criteriaBuilder.asc(root.get("views")), criteriaBuilder.asc(root.get("id")));
+        } else if (sort == EventSortType.EVENT_DATE) {
+            criteriaQuery.orderBy(criteriaBuilder.asc(root.get("eventDate")), criteriaBuilder.asc(root.get("id")));
+        } else {
+            criteriaQuery.orderBy(criteriaBuilder.asc(root.get("id")));
+        }
+        return page(entityManager.createQuery(criteriaQuery), after, from, size);
     }
 
     public List<Event> findEventsByAdmin(List<Long> users, List<EventState> states, List<Long> categories, LocalDateTime rangeStart,
-                                      LocalDateTime rangeEnd, Integer from, Integer size) {
+                                      LocalDateTime rangeEnd, Cursor after, Integer from, Integer size) {
         CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
         CriteriaQuery<Event> criteriaQuery = criteriaBuilder.createQuery(Event.class);
         Root<Event> root = criteriaQuery.from(Event.class);
@@ -72,7 +135,98 @@ public class EventCustomRepositoryImpl implements EventCustomRepository {
         if (rangeEnd != null) {
             predicate = criteriaBuilder.and(predicate, criteriaBuilder.lessThanOrEqualTo(root.get("eventDate"), rangeEnd));
         }
-        criteriaQuery.select(root).where(predicate);
-        return entityManager.createQuery(criteriaQuery).setFirstResult(from).setMaxResults(size).getResultList();
+        if (after != null) {
+            predicate = criteriaBuilder.and(predicate, criteriaBuilder.greaterThan(root.get("id"), after.getId()));
+        }
+        criteriaQuery.select(root).where(predicate).orderBy(criteriaBuilder.asc(root.get("id")));
+        return page(entityManager.createQuery(criteriaQuery)
+                .setHint(LOAD_GRAPH, entityManager.getEntityGraph(Event.WITH_DETAILS)), after, from, size);
+    }
+
+    /**
+     * A bounding box, which the locations index can serve, then the spherical law of cosines.
+     * A point is within the area when the cosine of its central angle to the centre is at least the cosine of
+     * the angular radius, which avoids {@code acos} of rounded values just above 1.
+     */
+    private Predicate near(CriteriaBuilder criteriaBuilder, Join<Event, Location> location, GeoArea area) {
+        double angle = area.angularRadius();
+        if (angle >= Math.PI) {
+            return criteriaBuilder.conjunction();
+        }
+        Path<Float> lat = location.get("lat");
+        Path<Float> lon = location.get("lon");
+        double minLat = area.getLat() - Math.toDegrees(angle);
+        double maxLat = area.getLat() + Math.toDegrees(angle);
+        float boxMinLat = Math.nextDown((float) Math.max(minLat, -90));
+        float boxMaxLat = Math.nextUp((float) Math.min(maxLat, 90));
+        Predicate box;
+        if (minLat > -90 && maxLat < 90) {
+            double deltaLon = Math.toDegrees(Math.asin(Math.min(1,
+                    Math.sin(angle) / Math.cos(Math.toRadians(area.getLat())))));
+            float minLon = Math.nextDown((float) (area.getLon() - deltaLon));
+            float maxLon = Math.nextUp((float) (area.getLon() + deltaLon));
+            if (minLon < -180) {
+                box = criteriaBuilder.or(inBox(criteriaBuilder, lat, lon, boxMinLat, boxMaxLat, minLon + 360, 180),
+                        inBox(criteriaBuilder, lat, lon, boxMinLat, boxMaxLat, -180, maxLon));
+            } else if (maxLon > 180) {
+                box = criteriaBuilder.or(inBox(criteriaBuilder, lat, lon, boxMinLat, boxMaxLat, minLon, 180),
+                        inBox(criteriaBuilder, lat, lon, boxMinLat, boxMaxLat, -180, maxLon - 360));
+            } else {
+                box = inBox(criteriaBuilder, lat, lon, boxMinLat, boxMaxLat, minLon, maxLon);
+            }
+        } else {
+            // the area covers a pole, so every longitude
+            box = inBox(criteriaBuilder, lat, lon, boxMinLat, boxMaxLat, -Float.MAX_VALUE, Float.MAX_VALUE);
+        }
+        double centreLat = Math.toRadians(area.getLat());
+        Expression<Double> pointLat = criteriaBuilder.function("radians", Double.class, lat);
+        Expression<Double> pointLon = criteriaBuilder.function("radians", Double.class, lon);
+        Expression<Double> cosAngle = criteriaBuilder.sum(
+                criteriaBuilder.prod(Math.sin(centreLat), criteriaBuilder.function("sin", Double.class, pointLat)),
+                criteriaBuilder.prod(criteriaBuilder.prod(Math.cos(centreLat),
+                                criteriaBuilder.function("cos", Double.class, pointLat)),
+                        criteriaBuilder.function("cos", Double.class,
+                                criteriaBuilder.diff(pointLon, Math.toRadians(area.getLon())))));
+        return criteriaBuilder.and(box, criteriaBuilder.greaterThanOrEqualTo(cosAngle, Math.cos(angle)));
+    }
+
+    /**
+     * With {@code events.search.geo-index} the box is matched against the PostgreSQL GiST index on
+     * {@code point(lon, lat)}; otherwise it is two ranges, of which the (lat, lon) index serves the first.
+     */
+    private Predicate inBox(CriteriaBuilder criteriaBuilder, Path<Float> lat, Path<Float> lon,
+                            float minLat, float maxLat, float minLon, float maxLon) {
+        if (geoIndex) {
+            return criteriaBuilder.equal(criteriaBuilder.function(EwmPostgreSQLDialect.GEO_WITHIN, Boolean.class,
+                    lon, lat, criteriaBuilder.literal(minLon), criteriaBuilder.literal(minLat),
+                    criteriaBuilder.literal(maxLon), criteriaBuilder.literal(maxLat)), true);
+        }
+        return criteriaBuilder.and(criteriaBuilder.between(lat, minLat, maxLat),
+                criteriaBuilder.between(lon, minLon, maxLon));
+    }
+
+    private Predicate seek(CriteriaBuilder criteriaBuilder, Root<Event> root, EventSortType sort, Cursor after) {
+        Path<Long> id = root.get("id");
+        Predicate nextId = criteriaBuilder.greaterThan(id, after.getId());
+        if (sort == EventSortType.VIEWS) {
+            Path<Long> views = root.get("views");
+            long value = after.longValue();
+            return criteriaBuilder.or(criteriaBuilder.greaterThan(views, value),
+                    criteriaBuilder.and(criteriaBuilder.equal(views, value), nextId));
+        }
+        if (sort == EventSortType.EVENT_DATE) {
+            Path<LocalDateTime> eventDate = root.get("eventDate");
+            LocalDateTime value = after.dateValue();
+            return criteriaBuilder.or(criteriaBuilder.greaterThan(eventDate, value),
+                    criteriaBuilder.and(criteriaBuilder.equal(eventDate, value), nextId));
+        }
+        return nextId;
+    }
+
+    private <T> List<T> page(TypedQuery<T> query, Cursor after, Integer from, Integer size) {
+        if (after == null) {
+            query.setFirstResult(from);
+        }
+        return query.setMaxResults(size).getResultList();
     }
 }
@@ -1,17 +1,55 @@
 package ru.practicum.service.event.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.service.event.dto.EventShortProjection;
+import ru.practicum.service.event.enums.EventState;
 import ru.practicum.service.event.model.Event;
 
+import javax.persistence.LockModeType;
 import java.util.List;
 import java.util.Optional;
 
 public interface EventRepository extends JpaRepository<Event, Long>, EventCustomRepository {
+    @EntityGraph(Event.WITH_DETAILS)
     Optional<Event> findByIdAndInitiatorId(Long eventId, Long userId);
 
-    Page<Event> findAllByInitiatorId(Long userId, Pageable page);
+    @Query(value = "SELECT new ru.practicum.service.event.dto.EventShortProjection(e.id, e.annotation, " +
+            "c.id, c.name, e.confirmedRequests, e.eventDate, i.id, i.name, e.paid, e.title, e.publishedOn, e.views) " +
+            "FROM Event AS e " +
+            "LEFT JOIN e.category AS c " +
+            "JOIN e.initiator AS i " +
+            "WHERE i.id = ?1")
+    List<EventShortProjection> findShortByInitiatorId(Long userId, Pageable page);
 
+    @EntityGraph(Event.WITH_DETAILS)
     List<Event> findAllByIdIn(List<Long> eventsId);
+
+    List<Event> findAllByStateAndIdGreaterThanOrderByIdAsc(EventState state, Long id, Pageable page);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(value = "SELECT e FROM Event AS e WHERE e.id = ?1")
+    Optional<Event> findByIdForUpdate(Long eventId);
+
+    @Modifying
+    @Query(value = "UPDATE Event AS e SET e.confirmedRequests = e.confirmedRequests + ?2 WHERE e.id = ?1")
+    int addConfirmedRequests(Long eventId, long count);
+
+    @Modifying
+    @Query(value = "UPDATE Event AS e SET e.confirmedRequests = e.confirmedRequests + ?2 " +
+            "WHERE e.id = ?1 " +
+            "AND (e.participantLimit = 0 OR e.confirmedRequests + ?2 <= e.participantLimit)")
+    int reserveConfirmedRequests(Long eventId, long count);
+
+    @Modifying
+    @Query(value = "UPDATE Event AS e SET e.confirmedRequests = ?2 WHERE e.id = ?1")
+    int setConfirmedRequests(Long eventId, long confirmedRequests);
+
+    @Modifying
+    @Query(value = "UPDATE Event AS e SET e.views = ?2 WHERE e.id = ?1")
+    int setViews(Long eventId, long views);
 }
@@ -1,10 +1,23 @@
 package ru.practicum.service.event.repository;
 
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.service.CacheNames;
 import ru.practicum.service.event.model.Location;
 
 import java.util.Optional;
 
 public interface LocationRepository extends JpaRepository<Location, Long> {
-    Optional<Location> findByLatAndLon(Float lat, Float lon);
+    @Cacheable(cacheNames = CacheNames.LOCATIONS, key = "#p0 + ':' + #p1", unless = "#result == null")
+    @Query(value = "SELECT l.id FROM Location AS l WHERE l.lat = ?1 AND l.lon = ?2")
+    Optional<Long> findIdByLatAndLon(Float lat, Float lon);
+
+    @Query(value = "SELECT l.id FROM Location AS l WHERE l.lat = ?1 AND l.lon = ?2")
+    Optional<Long> findUncachedIdByLatAndLon(Float lat, Float lon);
+
+    @Modifying
+    @Query(value = "INSERT INTO locations (lat, lon) VALUES (?1, ?2) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(Float lat, Float lon);
 }
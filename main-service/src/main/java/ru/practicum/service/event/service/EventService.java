@@ -4,6 +4,7 @@ import ru.practicum.service.event.dto.*;
 import ru.practicum.service.event.enums.EventSortType;
 import ru.practicum.service.event.enums.EventState;
 import ru.practicum.service.event.model.Event;
+import ru.practicum.service.pagination.CursorPage;
 
 import javax.servlet.http.HttpServletRequest;
 import java.time.LocalDateTime;
@@ -12,8 +13,14 @@ import java.util.List;
 public interface EventService {
     EventFullDto getEventByIdPublic(Long id, HttpServletRequest httpServletRequest);
 
-    List<EventShortDto> getEventsPublic(String text, List<Long> categories, Boolean paid, LocalDateTime rangeStart,
-                                        LocalDateTime rangeEnd, Boolean onlyAvailable, EventSortType sort, Integer from, Integer size, HttpServletRequest httpServletRequest);
+    /**
+     * Sorted by {@link EventSortType#VIEWS}, events show the views stored on them, which lag stats-server by up to
+     * {@code events.views-sync.interval-ms}; otherwise they show the current counts.
+     */
+    CursorPage<EventShortDto> getEventsPublic(String text, List<Long> categories, Boolean paid, LocalDateTime rangeStart,
+                                              LocalDateTime rangeEnd, Boolean onlyAvailable, GeoArea area,
+                                              EventSortType sort, String after, Integer from, Integer size,
+                                              HttpServletRequest httpServletRequest);
 
     List<EventShortDto> getEventsPrivate(Long userId, int from, int size);
 
@@ -24,8 +31,9 @@ public interface EventService {
     EventFullDto updateEventPrivate(Long userId, Long eventId, UpdateEventUserRequest updateEventUserRequest);
 
 
-    List<EventFullDto> getEventsAdmin(List<Long> users, List<EventState> states, List<Long> categories,
-                                      LocalDateTime rangeStart, LocalDateTime rangeEnd, Integer from, Integer size);
+    CursorPage<EventFullDto> getEventsAdmin(List<Long> users, List<EventState> states, List<Long> categories,
+                                            LocalDateTime rangeStart, LocalDateTime rangeEnd, String after,
+                                            Integer from, Integer size);
 
     EventFullDto updateEventAdmin(Long eventId, UpdateEventAdminRequest updateEventAdminRequest);
 
@@ -33,5 +41,11 @@ public interface EventService {
 
     List<Event> getEventsByIdsList(List<Long> ids);
 
+    void reserveConfirmedRequests(Event event, long count);
+
+    void releaseConfirmedRequests(Event event, long count);
+
     Event getEvent(Long eventId);
+
+    void checkEventExists(Long eventId);
 }
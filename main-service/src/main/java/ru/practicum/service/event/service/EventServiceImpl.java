@@ -4,8 +4,10 @@ import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.service.category.service.CategoryService;
@@ -15,20 +17,18 @@ import ru.practicum.service.event.enums.EventState;
 import ru.practicum.service.event.enums.StateAdminAction;
 import ru.practicum.service.event.enums.StateUserAction;
 import ru.practicum.service.event.mapper.EventMapper;
-import ru.practicum.service.event.mapper.LocationMapper;
 import ru.practicum.service.event.model.Event;
-import ru.practicum.service.event.model.Location;
 import ru.practicum.service.event.repository.EventRepository;
-import ru.practicum.service.event.repository.LocationRepository;
 import ru.practicum.service.exception.ConflictException;
 import ru.practicum.service.exception.DatesException;
 import ru.practicum.service.exception.EntityNotFoundException;
+import ru.practicum.service.pagination.Cursor;
+import ru.practicum.service.pagination.CursorPage;
 import ru.practicum.service.stats.StatsService;
 import ru.practicum.service.user.service.UserService;
 
 import javax.servlet.http.HttpServletRequest;
 import java.time.LocalDateTime;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -44,8 +44,7 @@ public class EventServiceImpl implements EventService {
     final EventMapper eventMapper;
     final UserService userService;
     final CategoryService categoryService;
-    final LocationMapper locationMapper;
-    final LocationRepository locationRepository;
+    final LocationService locationService;
     final StatsService statsService;
 
     @Override
@@ -63,43 +62,43 @@ public class EventServiceImpl implements EventService {
     }
 
     @Override
-    public List<EventShortDto> getEventsPublic(String text, List<Long> categories, Boolean paid, LocalDateTime rangeStart,
-                                               LocalDateTime rangeEnd, Boolean onlyAvailable, EventSortType sort,
-                                               Integer from, Integer size, HttpServletRequest httpServletRequest) {
+    public CursorPage<EventShortDto> getEventsPublic(String text, List<Long> categories, Boolean paid,
+                                                     LocalDateTime rangeStart, LocalDateTime rangeEnd,
+                                                     Boolean onlyAvailable, GeoArea area, EventSortType sort,
+                                                     String after, Integer from, Integer size,
+                                                     HttpServletRequest httpServletRequest) {
         log.info("Method getEventsPublic invoke");
         validateTime(rangeStart, rangeEnd);
-        List<Event> events = eventRepository.findEventsByPublic(text, categories, paid,
-                rangeStart, rangeEnd, from, size);
+        if (sort == EventSortType.RELEVANCE && after != null) {
+            throw new IllegalArgumentException("Cursor paging is not supported for RELEVANCE sort");
+        }
+        Cursor cursor = Cursor.decode(after, sort == null ? Cursor.ID_SORT : sort.name());
+        List<EventShortProjection> events = eventRepository.findEventsByPublic(text, categories, paid,
+                rangeStart, rangeEnd, onlyAvailable, area, sort, cursor, from, size);
         if (events.isEmpty()) {
-            return List.of();
-        }
-        Map<Long, Long> partLimit = new HashMap<>();
-        events.forEach(event -> partLimit.put(event.getId(), event.getParticipantLimit()));
-        List<EventShortDto> eventsShortDtoList = getEventShortWithViewsAndRequests(events);
-        if (onlyAvailable) {
-            eventsShortDtoList = eventsShortDtoList.stream()
-                    .filter(eventShortDto -> (partLimit.get(eventShortDto.getId()) == 0 ||
-                            partLimit.get(eventShortDto.getId()) > eventShortDto.getConfirmedRequests()))
-                    .collect(Collectors.toList());
-        }
-        if (sort != null && sort.equals(EventSortType.VIEWS)) {
-            eventsShortDtoList.sort(Comparator.comparing(EventShortDto::getViews));
-        } else if (sort != null && sort.equals(EventSortType.EVENT_DATE)) {
-            eventsShortDtoList.sort(Comparator.comparing(EventShortDto::getEventDate));
+            return new CursorPage<>(List.of(), null);
         }
+        // the page is ordered by the stored counters, so it shows them too rather than fresher live counts
+        List<EventShortDto> eventsShortDtoList = sort == EventSortType.VIEWS
+                ? events.stream().map(event -> eventMapper.fromProjectionToShortDto(event, event.getViews()))
+                .collect(Collectors.toList())
+                : getEventShortFromProjections(events);
         statsService.addHit(httpServletRequest);
         log.info("Get public request for events");
-        return eventsShortDtoList;
+        return new CursorPage<>(eventsShortDtoList, sort == EventSortType.RELEVANCE ? null
+                : Cursor.next(events, size, event -> cursorOf(event, sort)));
     }
 
     @Override
     public List<EventShortDto> getEventsPrivate(Long userId, int from, int size) {
         log.info("Method getEventsPrivate invoke");
-        userService.findUserById(userId);
-        Pageable page = PageRequest.of(from / size, size);
-        List<Event> events = eventRepository.findAllByInitiatorId(userId, page).stream().collect(Collectors.toList());
+        Pageable page = PageRequest.of(from / size, size, Sort.by("id"));
+        List<EventShortProjection> events = eventRepository.findShortByInitiatorId(userId, page);
+        if (events.isEmpty()) {
+            userService.checkUserExists(userId);
+        }
         log.info("Get user id = {} events", userId);
-        return getEventShortWithViewsAndRequests(events);
+        return getEventShortFromProjections(events);
     }
 
     @Override
@@ -108,8 +107,9 @@ public class EventServiceImpl implements EventService {
         log.info("Method addEventPrivate invoke");
         validateDate(newEventDto.getEventDate());
         Event newEvent = eventMapper.fromDtoToModel(newEventDto, userService.findUserById(userId),
-                categoryService.getCategoryById(newEventDto.getCategory()), getLocation(newEventDto.getLocation()));
-        EventFullDto savedEvent = eventMapper.fromModelToFullDto(eventRepository.save(newEvent), 0L, 0L);
+                categoryService.getCategoryById(newEventDto.getCategory()),
+                locationService.getLocation(newEventDto.getLocation()));
+        EventFullDto savedEvent = eventMapper.fromModelToFullDto(eventRepository.save(newEvent), 0L);
         log.info("New event added {}", savedEvent);
         return savedEvent;
     }
@@ -153,7 +153,7 @@ public class EventServiceImpl implements EventService {
             event.setEventDate(updateEventUserRequest.getEventDate());
         }
         if (updateEventUserRequest.getLocation() != null) {
-            event.setLocation(getLocation(updateEventUserRequest.getLocation()));
+            event.setLocation(locationService.getLocation(updateEventUserRequest.getLocation()));
         }
         if (updateEventUserRequest.getPaid() != null) {
             event.setPaid(updateEventUserRequest.getPaid());
@@ -172,14 +172,16 @@ public class EventServiceImpl implements EventService {
     }
 
     @Override
-    public List<EventFullDto> getEventsAdmin(List<Long> users, List<EventState> states, List<Long> categories,
-                                             LocalDateTime rangeStart, LocalDateTime rangeEnd, Integer from, Integer size) {
+    public CursorPage<EventFullDto> getEventsAdmin(List<Long> users, List<EventState> states, List<Long> categories,
+                                                   LocalDateTime rangeStart, LocalDateTime rangeEnd, String after,
+                                                   Integer from, Integer size) {
         log.info("Method getEventsAdmin invoke");
         validateTime(rangeStart, rangeEnd);
-        List<Event> events = eventRepository.findEventsByAdmin(users, states, categories, rangeStart, rangeEnd, from, size);
+        List<Event> events = eventRepository.findEventsByAdmin(users, states, categories, rangeStart, rangeEnd,
+                Cursor.decode(after, Cursor.ID_SORT), from, size);
         List<EventFullDto> fullEvents = getEventWithViewsAndRequests(events);
         log.info("Get information about events by admin request {}", fullEvents);
-        return fullEvents;
+        return new CursorPage<>(fullEvents, Cursor.next(events, size, event -> Cursor.byId(event.getId())));
     }
 
     @Override
@@ -206,7 +208,7 @@ public class EventServiceImpl implements EventService {
             event.setEventDate(updateEventAdminRequest.getEventDate());
         }
         if (updateEventAdminRequest.getLocation() != null) {
-            event.setLocation(getLocation(updateEventAdminRequest.getLocation()));
+            event.setLocation(locationService.getLocation(updateEventAdminRequest.getLocation()));
         }
         if (updateEventAdminRequest.getPaid() != null) {
             event.setPaid(updateEventAdminRequest.getPaid());
@@ -238,9 +240,7 @@ public class EventServiceImpl implements EventService {
     public List<EventShortDto> getEventShortWithViewsAndRequests(List<Event> events) {
         log.info("Method getEventShortWithViewsAndRequests invoke");
         Map<Long, Long> views = statsService.getViews(events);
-        Map<Long, Long> confirmedRequests = statsService.getConfirmedRequests(events);
         return events.stream().map(event -> eventMapper.fromModelToShortDto(event,
-                        confirmedRequests.getOrDefault(event.getId(), 0L),
                         views.getOrDefault(event.getId(), 0L)))
                 .collect(Collectors.toList());
     }
@@ -251,6 +251,28 @@ public class EventServiceImpl implements EventService {
         return eventRepository.findAllByIdIn(ids);
     }
 
+    /**
+     * Reserves places with one conditional UPDATE: concurrent reservations queue on the event row only and each
+     * re-checks the limit against the committed counter, so the limit holds without locking in advance.
+     */
+    @Override
+    @Transactional
+    public void reserveConfirmedRequests(Event event, long count) {
+        if (eventRepository.reserveConfirmedRequests(event.getId(), count) == 0) {
+            throw new ConflictException("Limit for participation is reached");
+        }
+        event.setConfirmedRequests(event.getConfirmedRequests() + count);
+    }
+
+    @Override
+    @Transactional
+    public void releaseConfirmedRequests(Event event, long count) {
+        eventRepository.addConfirmedRequests(event.getId(), -count);
+        if (Hibernate.isInitialized(event)) {
+            event.setConfirmedRequests(event.getConfirmedRequests() - count);
+        }
+    }
+
     @Override
     public Event getEvent(Long eventId) {
         log.info("Method getEvent invoke");
@@ -259,6 +281,13 @@ public class EventServiceImpl implements EventService {
         });
     }
 
+    @Override
+    public void checkEventExists(Long eventId) {
+        if (!eventRepository.existsById(eventId)) {
+            throw new EntityNotFoundException("Event not found");
+        }
+    }
+
     private void validateDate(LocalDateTime eventDate) {
         if (eventDate != null && eventDate.isBefore(LocalDateTime.now().plusHours(2))) {
             throw new DatesException("Event date must be at least two hours after the current moment");
@@ -272,23 +301,35 @@ public class EventServiceImpl implements EventService {
     }
 
     private Event getEventByInitiator(Long eventId, Long userId) {
-        userService.findUserById(userId);
         return eventRepository.findByIdAndInitiatorId(eventId, userId).orElseThrow(() -> {
+            userService.checkUserExists(userId);
             throw new EntityNotFoundException("Event not found");
         });
     }
 
-    private Location getLocation(LocationDto locationDto) {
-        Location location = locationMapper.fromDtoToModel(locationDto);
-        return locationRepository.findByLatAndLon(location.getLat(), location.getLon())
-                .orElseGet(() -> locationRepository.save(location));
+    private List<EventShortDto> getEventShortFromProjections(List<EventShortProjection> events) {
+        Map<Long, LocalDateTime> published = new HashMap<>();
+        events.stream().filter(event -> event.getPublishedOn() != null)
+                .forEach(event -> published.put(event.getId(), event.getPublishedOn()));
+        Map<Long, Long> views = statsService.getViews(published);
+        return events.stream().map(event -> eventMapper.fromProjectionToShortDto(event,
+                        views.getOrDefault(event.getId(), 0L)))
+                .collect(Collectors.toList());
+    }
+
+    private Cursor cursorOf(EventShortProjection event, EventSortType sort) {
+        if (sort == EventSortType.VIEWS) {
+            return Cursor.of(sort.name(), event.getViews(), event.getId());
+        }
+        if (sort == EventSortType.EVENT_DATE) {
+            return Cursor.of(sort.name(), event.getEventDate(), event.getId());
+        }
+        return Cursor.byId(event.getId());
     }
 
     private List<EventFullDto> getEventWithViewsAndRequests(List<Event> events) {
         Map<Long, Long> views = statsService.getViews(events);
-        Map<Long, Long> confirmedRequests = statsService.getConfirmedRequests(events);
         return events.stream().map(event -> eventMapper.fromModelToFullDto(event,
-                confirmedRequests.getOrDefault(event.getId(), 0L),
                 views.getOrDefault(event.getId(), 0L)))
                 .collect(Collectors.toList());
     }
@@ -0,0 +1,80 @@
+package ru.practicum.service.event.service;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.service.event.enums.EventState;
+import ru.practicum.service.event.model.Event;
+import ru.practicum.service.event.repository.EventRepository;
+import ru.practicum.service.stats.StatsService;
+import ru.practicum.service.stats.ViewsCache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Copies view counts of published events into {@code events.views}, which public search filters and sorts on.
+ * Counts come through the views cache, which is sized to hold every published event, so a pass mostly serves
+ * cached counts and leaves reloading them to the cache's background refresh.
+ */
+@Component
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class EventViewsSync {
+    final EventRepository eventRepository;
+    final StatsService statsService;
+    final ViewsCache viewsCache;
+    final TransactionTemplate transactionTemplate;
+    final int batchSize;
+
+    public EventViewsSync(EventRepository eventRepository,
+                          StatsService statsService,
+                          ViewsCache viewsCache,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${events.views-sync.batch-size}") int batchSize) {
+        this.eventRepository = eventRepository;
+        this.statsService = statsService;
+        this.viewsCache = viewsCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${events.views-sync.interval-ms}")
+    public void syncViews() {
+        long lastId = 0;
+        int published = 0;
+        int updated = 0;
+        while (true) {
+            List<Event> events = eventRepository.findAllByStateAndIdGreaterThanOrderByIdAsc(EventState.PUBLISHED,
+                    lastId, PageRequest.of(0, batchSize));
+            if (events.isEmpty()) {
+                break;
+            }
+            published += events.size();
+            Map<Long, Long> views = statsService.getViews(events);
+            List<Event> changed = events.stream()
+                    .filter(event -> !views.getOrDefault(event.getId(), 0L).equals(event.getViews()))
+                    .collect(Collectors.toList());
+            if (!changed.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status -> changed.forEach(event ->
+                        eventRepository.setViews(event.getId(), views.getOrDefault(event.getId(), 0L))));
+                updated += changed.size();
+            }
+            if (events.size() < batchSize) {
+                break;
+            }
+            lastId = events.get(events.size() - 1).getId();
+        }
+        viewsCache.reserve(published);
+        if (updated > 0) {
+            log.info("Stored views updated for {} events", updated);
+        }
+    }
+}
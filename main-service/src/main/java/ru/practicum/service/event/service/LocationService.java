@@ -0,0 +1,8 @@
+package ru.practicum.service.event.service;
+
+import ru.practicum.service.event.dto.LocationDto;
+import ru.practicum.service.event.model.Location;
+
+public interface LocationService {
+    Location getLocation(LocationDto locationDto);
+}
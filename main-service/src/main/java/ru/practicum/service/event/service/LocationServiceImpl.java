@@ -0,0 +1,41 @@
+package ru.practicum.service.event.service;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import ru.practicum.service.event.dto.LocationDto;
+import ru.practicum.service.event.mapper.LocationMapper;
+import ru.practicum.service.event.model.Location;
+import ru.practicum.service.event.repository.LocationRepository;
+
+/**
+ * Keeps one row per (lat, lon). Known coordinates resolve to a reference through the cached id lookup; new
+ * ones are inserted with ON CONFLICT DO NOTHING in the caller's transaction, so a concurrent insert that wins
+ * the unique index leaves nothing to roll back and its id is read instead. That read bypasses the cache, which
+ * must not hold an id before the transaction that inserted it commits.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class LocationServiceImpl implements LocationService {
+    final LocationRepository locationRepository;
+    final LocationMapper locationMapper;
+
+    @Override
+    public Location getLocation(LocationDto locationDto) {
+        Location location = locationMapper.fromDtoToModel(locationDto);
+        Long id = locationRepository.findIdByLatAndLon(location.getLat(), location.getLon())
+                .orElseGet(() -> insert(location));
+        return locationRepository.getReferenceById(id);
+    }
+
+    private Long insert(Location location) {
+        if (locationRepository.insertIfAbsent(location.getLat(), location.getLon()) == 0) {
+            log.info("Location {}, {} inserted concurrently", location.getLat(), location.getLon());
+        }
+        return locationRepository.findUncachedIdByLatAndLon(location.getLat(), location.getLon()).orElseThrow();
+    }
+}
@@ -0,0 +1,67 @@
+package ru.practicum.service.pagination;
+
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset position after the last row of a page: the value of the sort key and the id that breaks ties.
+ * Clients get it as an opaque url-safe string and pass it back in {@code after}; a cursor is only accepted
+ * by a listing with the same sort.
+ */
+@Value
+public class Cursor {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String ID_SORT = "ID";
+    static final String SEPARATOR = "|";
+
+    String sort;
+    String value;
+    Long id;
+
+    public static Cursor byId(Long id) {
+        return new Cursor(ID_SORT, "", id);
+    }
+
+    public static Cursor of(String sort, Object value, Long id) {
+        return new Cursor(sort, String.valueOf(value), id);
+    }
+
+    public static <T> Cursor next(List<T> rows, int size, Function<T, Cursor> cursor) {
+        return rows.isEmpty() || rows.size() < size ? null : cursor.apply(rows.get(rows.size() - 1));
+    }
+
+    public static Cursor decode(String after, String sort) {
+        if (after == null) {
+            return null;
+        }
+        String[] parts = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8)
+                .split("\\" + SEPARATOR, 3);
+        if (parts.length != 3 || !parts[0].equals(sort)) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort");
+        }
+        return new Cursor(parts[0], parts[1], Long.parseLong(parts[2]));
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(
+                String.join(SEPARATOR, sort, value, String.valueOf(id)).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public long longValue() {
+        return Long.parseLong(value);
+    }
+
+    public LocalDateTime dateValue() {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
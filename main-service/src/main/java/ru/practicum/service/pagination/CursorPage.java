@@ -0,0 +1,23 @@
+package ru.practicum.service.pagination;
+
+import lombok.Value;
+
+import javax.servlet.http.HttpServletResponse;
+import java.util.List;
+
+@Value
+public class CursorPage<T> {
+    List<T> items;
+    Cursor next;
+
+    /**
+     * Returns the items and, when the page is full, announces the cursor of the next one in
+     * {@link Cursor#NEXT_CURSOR_HEADER}.
+     */
+    public List<T> writeTo(HttpServletResponse response) {
+        if (next != null) {
+            response.setHeader(Cursor.NEXT_CURSOR_HEADER, next.encode());
+        }
+        return items;
+    }
+}
@@ -1,12 +1,13 @@
 package ru.practicum.service.request.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.service.event.dto.EventWithRequests;
+import ru.practicum.service.request.dto.RequestStatus;
 import ru.practicum.service.request.model.Request;
 
 import java.util.List;
-import java.util.Optional;
 
 public interface RequestRepository extends JpaRepository<Request, Long> {
     List<Request> findAllByRequesterId(Long requesterId);
@@ -15,12 +16,24 @@ public interface RequestRepository extends JpaRepository<Request, Long> {
 
     List<Request> findByEventId(Long eventId);
 
-    Optional<Request> findByEventIdAndRequesterId(Long eventId, Long userId);
+    List<Request> findAllByEventIdAndStatus(Long eventId, RequestStatus status);
 
-    @Query(value = "SELECT new ru.practicum.service.event.dto.EventWithRequests(r.event.id, count(r.id)) " +
-            "FROM Request as r " +
-            "WHERE r.event.id IN (?1) " +
-            "AND r.status = 'CONFIRMED' " +
-            "GROUP BY r.event.id")
-    List<EventWithRequests> getAllEventIdsConfirmed(List<Long> eventsId);
+    boolean existsByEventIdAndRequesterId(Long eventId, Long userId);
+
+    @Modifying
+    @Query(value = "UPDATE Request AS r SET r.status = ?2 WHERE r.id IN (?1) AND r.status = 'PENDING'")
+    int updatePendingStatus(List<Long> requestIds, RequestStatus status);
+
+    @Modifying
+    @Query(value = "UPDATE Request AS r SET r.status = 'REJECTED' WHERE r.event.id = ?1 AND r.status = 'PENDING'")
+    int rejectPending(Long eventId);
+
+    long countByEventIdAndStatus(Long eventId, RequestStatus status);
+
+    @Query(value = "SELECT new ru.practicum.service.event.dto.EventWithRequests(e.id, count(r.id)) " +
+            "FROM Event as e " +
+            "LEFT JOIN Request as r ON r.event = e AND r.status = 'CONFIRMED' " +
+            "GROUP BY e.id, e.confirmedRequests " +
+            "HAVING count(r.id) <> e.confirmedRequests")
+    List<EventWithRequests> findConfirmedRequestsDrift();
 }
@@ -0,0 +1,69 @@
+package ru.practicum.service.request.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.service.event.dto.EventWithRequests;
+import ru.practicum.service.event.repository.EventRepository;
+import ru.practicum.service.request.dto.RequestStatus;
+import ru.practicum.service.request.repository.RequestRepository;
+
+import java.util.List;
+
+/**
+ * Verifies the {@code events.confirmed_requests} counters against the {@code requests} table. Each drifted
+ * counter is recounted and repaired under a lock on its event row, the same row the counter updates take,
+ * so a repair cannot overwrite a concurrent change. Also runs on startup to fill counters added to existing rows.
+ */
+@Component
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ConfirmedRequestsReconciler {
+    final EventRepository eventRepository;
+    final RequestRepository requestRepository;
+    final TransactionTemplate transactionTemplate;
+    final Counter driftCounter;
+
+    public ConfirmedRequestsReconciler(EventRepository eventRepository,
+                                       RequestRepository requestRepository,
+                                       PlatformTransactionManager transactionManager,
+                                       MeterRegistry meterRegistry) {
+        this.eventRepository = eventRepository;
+        this.requestRepository = requestRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.driftCounter = meterRegistry.counter("requests.confirmed.drift");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${requests.reconcile.cron}")
+    public void reconcile() {
+        List<EventWithRequests> drifted = transactionTemplate.execute(status ->
+                requestRepository.findConfirmedRequestsDrift());
+        if (drifted == null || drifted.isEmpty()) {
+            return;
+        }
+        drifted.forEach(eventWithRequests -> transactionTemplate.executeWithoutResult(status ->
+                repair(eventWithRequests.getEventId())));
+        log.info("Confirmed requests reconciled for {} events", drifted.size());
+    }
+
+    private void repair(Long eventId) {
+        eventRepository.findByIdForUpdate(eventId).ifPresent(event -> {
+            long confirmed = requestRepository.countByEventIdAndStatus(eventId, RequestStatus.CONFIRMED);
+            if (event.getConfirmedRequests() != confirmed) {
+                log.warn("Confirmed requests of event id = {} drifted: stored {}, actual {}",
+                        eventId, event.getConfirmedRequests(), confirmed);
+                eventRepository.setConfirmedRequests(eventId, confirmed);
+                driftCounter.increment();
+            }
+        });
+    }
+}
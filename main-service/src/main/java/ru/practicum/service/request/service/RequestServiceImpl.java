@@ -19,14 +19,12 @@ import ru.practicum.service.request.dto.RequestStatusAction;
 import ru.practicum.service.request.mapper.RequestMapper;
 import ru.practicum.service.request.model.Request;
 import ru.practicum.service.request.repository.RequestRepository;
-import ru.practicum.service.stats.StatsService;
 import ru.practicum.service.user.model.User;
 import ru.practicum.service.user.service.UserService;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -39,7 +37,6 @@ public class RequestServiceImpl implements RequestService {
     final UserService userService;
     final EventService eventService;
     final RequestMapper requestMapper;
-    final StatsService statsService;
 
     @Override
     @Transactional
@@ -53,12 +50,11 @@ public class RequestServiceImpl implements RequestService {
         if (!event.getState().equals(EventState.PUBLISHED)) {
             throw new ConflictException("Event is not published");
         }
-        Optional<Request> requests = requestRepository.findByEventIdAndRequesterId(eventId, userId);
-        if (requests.isPresent()) {
+        if (requestRepository.existsByEventIdAndRequesterId(eventId, userId)) {
             throw new ConflictException("Request already exists");
         }
         if (event.getParticipantLimit() != 0 &&
-                (statsService.getConfirmedRequests(List.of(event)).getOrDefault(eventId, 0L) + 1) > event.getParticipantLimit()) {
+                event.getConfirmedRequests() + 1 > event.getParticipantLimit()) {
             throw new ConflictException("Limit is reached");
         }
         Request request = Request.builder()
@@ -72,6 +68,9 @@ public class RequestServiceImpl implements RequestService {
             request.setStatus(RequestStatus.PENDING);
         }
         ParticipationRequestDto savedRequest = requestMapper.fromModelToDto(requestRepository.save(request));
+        if (request.getStatus().equals(RequestStatus.CONFIRMED)) {
+            eventService.reserveConfirmedRequests(event, 1);
+        }
         log.info("New event request added {}", savedRequest);
         return savedRequest;
     }
@@ -79,20 +78,25 @@ public class RequestServiceImpl implements RequestService {
     @Override
     public List<ParticipationRequestDto> getRequests(Long userId) {
         log.info("Method getRequests invoke");
-        userService.findUserById(userId);
-        return requestRepository.findAllByRequesterId(userId).stream()
-                .map(requestMapper::fromModelToDto).collect(Collectors.toList());
+        List<Request> requests = requestRepository.findAllByRequesterId(userId);
+        if (requests.isEmpty()) {
+            userService.checkUserExists(userId);
+        }
+        return requests.stream().map(requestMapper::fromModelToDto).collect(Collectors.toList());
     }
 
     @Override
     @Transactional
     public ParticipationRequestDto cancelEventRequest(Long userId, Long requestId) {
         log.info("Method cancelEventRequest invoke");
-        userService.findUserById(userId);
         Request request = findRequest(requestId);
         if (!userId.equals(request.getRequester().getId())) {
+            userService.checkUserExists(userId);
             throw new ConflictException("User is not the requester");
         }
+        if (request.getStatus().equals(RequestStatus.CONFIRMED)) {
+            eventService.releaseConfirmedRequests(request.getEvent(), 1);
+        }
         request.setStatus(RequestStatus.CANCELED);
         return requestMapper.fromModelToDto(requestRepository.save(request));
     }
@@ -100,10 +104,12 @@ public class RequestServiceImpl implements RequestService {
     @Override
     public List<ParticipationRequestDto> getUserEventRequests(Long userId, Long eventId) {
         log.info("Method getUserEventRequests invoke");
-        eventService.getEvent(eventId);
+        List<Request> requests = requestRepository.findByEventId(eventId);
+        if (requests.isEmpty()) {
+            eventService.checkEventExists(eventId);
+        }
         log.info("Get requests information to participate in the event id = {} of user id = {}", eventId, userId);
-        return requestRepository.findByEventId(eventId).stream()
-                .map(requestMapper::fromModelToDto).collect(Collectors.toList());
+        return requests.stream().map(requestMapper::fromModelToDto).collect(Collectors.toList());
     }
 
     @Override
@@ -111,35 +117,44 @@ public class RequestServiceImpl implements RequestService {
     public EventRequestStatusUpdateResult updateUserEventRequestStatus(Long userId, Long eventId,
                                                                        EventRequestStatusUpdateRequest eventRequestStatusUpdateRequest) {
         log.info("Method updateUserEventRequestStatus invoke for event id = {}", eventId);
-        userService.findUserById(userId);
         Event event = eventService.getEvent(eventId);
         validateUserIsOwner(userId, event);
         if (!event.getRequestModeration() || event.getParticipantLimit() == 0 ||
                 eventRequestStatusUpdateRequest.getRequestIds().isEmpty()) {
             return new EventRequestStatusUpdateResult(List.of(), List.of());
         }
-        List<Request> confirmedList = new ArrayList<>();
-        List<Request> rejected = new ArrayList<>();
         List<Request> requests = requestRepository.findAllByIdIn(eventRequestStatusUpdateRequest.getRequestIds());
-        if (!requests.stream().map(Request::getStatus).allMatch(RequestStatus.PENDING::equals)) {
+        if (!requests.stream().allMatch(request -> request.getStatus().equals(RequestStatus.PENDING)
+                && request.getEvent().getId().equals(eventId))) {
             throw new ConflictException("Request can't be changed");
         }
-        Long limit = event.getParticipantLimit() - statsService.getConfirmedRequests(List.of(event)).getOrDefault(eventId, 0L);
+        Long limit = event.getParticipantLimit() - event.getConfirmedRequests();
         validateLimit(limit, event.getParticipantLimit());
-        if (eventRequestStatusUpdateRequest.getStatus().equals(RequestStatusAction.REJECTED)) {
-            rejected.addAll(changeStatusAndSave(requests, RequestStatus.REJECTED));
+        List<Request> confirmed = List.of();
+        List<Request> rejected = requests;
+        if (eventRequestStatusUpdateRequest.getStatus().equals(RequestStatusAction.CONFIRMED)) {
+            requests.sort(Comparator.comparing(Request::getId));
+            confirmed = requests.subList(0, (int) Math.min(limit, requests.size()));
+            eventService.reserveConfirmedRequests(event, confirmed.size());
+            changeStatus(confirmed, RequestStatus.CONFIRMED);
+            if (confirmed.size() == limit) {
+                rejected = requestRepository.findAllByEventIdAndStatus(eventId, RequestStatus.PENDING);
+                requestRepository.rejectPending(eventId);
+            } else {
+                rejected = List.of();
+            }
         } else {
-            confirmedList.addAll(changeStatusAndSave(requests, RequestStatus.CONFIRMED));
+            changeStatus(rejected, RequestStatus.REJECTED);
         }
         EventRequestStatusUpdateResult result = new EventRequestStatusUpdateResult(
-        confirmedList.stream().map(requestMapper::fromModelToDto).collect(Collectors.toList()),
-        rejected.stream().map(requestMapper::fromModelToDto).collect(Collectors.toList()));
+                toDtos(confirmed, RequestStatus.CONFIRMED), toDtos(rejected, RequestStatus.REJECTED));
         log.info("Update event request status");
         return result;
     }
 
     private void validateUserIsOwner(Long userId, Event event) {
         if (!userId.equals(event.getInitiator().getId())) {
+            userService.checkUserExists(userId);
             throw new ConflictException("User is not the initiator");
         }
     }
@@ -150,9 +165,18 @@ public class RequestServiceImpl implements RequestService {
         }
     }
 
-    private List<Request> changeStatusAndSave(List<Request> requests, RequestStatus status) {
-        requests.forEach(request -> request.setStatus(status));
-        return requestRepository.saveAll(requests);
+    private void changeStatus(List<Request> requests, RequestStatus status) {
+        List<Long> requestIds = requests.stream().map(Request::getId).collect(Collectors.toList());
+        if (requestRepository.updatePendingStatus(requestIds, status) != requestIds.size()) {
+            throw new ConflictException("Request can't be changed");
+        }
+    }
+
+    private List<ParticipationRequestDto> toDtos(List<Request> requests, RequestStatus status) {
+        List<ParticipationRequestDto> dtos = requests.stream().map(requestMapper::fromModelToDto)
+                .collect(Collectors.toList());
+        dtos.forEach(dto -> dto.setStatus(status));
+        return dtos;
     }
 
     private Request findRequest(Long requestId) {
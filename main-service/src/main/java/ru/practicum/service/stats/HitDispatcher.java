@@ -0,0 +1,152 @@
+package ru.practicum.service.stats;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import ru.practicum.client.StatsClient;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends hits to stats-server off the request thread. Hits wait in a bounded queue; when it is full
+ * the configured {@link HitSheddingPolicy} decides whether the new hit, the oldest queued hit or
+ * nothing is dropped (CALLER_RUNS sends on the request thread instead).
+ */
+@Component
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class HitDispatcher {
+    final StatsClient statsClient;
+    final ThreadPoolExecutor executor;
+    final Counter enqueuedCounter;
+    final Counter sentCounter;
+    final Counter droppedCounter;
+    final Counter failedCounter;
+
+    public HitDispatcher(StatsClient statsClient,
+                         MeterRegistry meterRegistry,
+                         @Value("${stats.dispatch.threads}") int threads,
+                         @Value("${stats.dispatch.queue-capacity}") int queueCapacity,
+                         @Value("${stats.dispatch.shedding-policy}") HitSheddingPolicy sheddingPolicy) {
+        this.statsClient = statsClient;
+        this.enqueuedCounter = meterRegistry.counter("stats.dispatch.enqueued");
+        this.sentCounter = meterRegistry.counter("stats.dispatch.sent");
+        this.droppedCounter = meterRegistry.counter("stats.dispatch.dropped");
+        this.failedCounter = meterRegistry.counter("stats.dispatch.failed");
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory(), rejectionHandler(sheddingPolicy));
+        Gauge.builder("stats.dispatch.queue.depth", executor, e -> e.getQueue().size())
+                .register(meterRegistry);
+        FunctionCounter.builder("stats.client.overflow", statsClient, StatsClient::getOverflowHits)
+                .register(meterRegistry);
+        FunctionCounter.builder("stats.client.dropped", statsClient, StatsClient::getDroppedHits)
+                .register(meterRegistry);
+    }
+
+    public void dispatch(String app, String uri, String ip, LocalDateTime timestamp) {
+        HitTask task = new HitTask(app, uri, ip, timestamp);
+        executor.execute(task);
+        if (!task.dropped) {
+            enqueuedCounter.increment();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+            log.warn("{} hits were not sent before shutdown", executor.getQueue().size());
+        }
+    }
+
+    private void send(String app, String uri, String ip, LocalDateTime timestamp) {
+        try {
+            ResponseEntity<Object> response = statsClient.addHit(app, uri, ip, timestamp);
+            if (response.getStatusCode().is2xxSuccessful()) {
+                sentCounter.increment();
+            } else {
+                failedCounter.increment();
+                log.warn("Stats server rejected hit {} with status {}", uri, response.getStatusCode());
+            }
+        } catch (RuntimeException e) {
+            failedCounter.increment();
+            log.warn("Failed to send hit {}: {}", uri, e.getMessage());
+        }
+    }
+
+    private RejectedExecutionHandler rejectionHandler(HitSheddingPolicy sheddingPolicy) {
+        switch (sheddingPolicy) {
+            case DROP_OLDEST:
+                return (task, pool) -> {
+                    if (pool.isShutdown()) {
+                        drop(task);
+                        return;
+                    }
+                    if (pool.getQueue().poll() != null) {
+                        droppedCounter.increment();
+                    }
+                    // another caller may have taken the freed slot, then this hit is dropped too
+                    if (!pool.getQueue().offer(task)) {
+                        drop(task);
+                    }
+                };
+            case CALLER_RUNS:
+                return (task, pool) -> {
+                    if (pool.isShutdown()) {
+                        drop(task);
+                    } else {
+                        task.run();
+                    }
+                };
+            default:
+                return (task, pool) -> drop(task);
+        }
+    }
+
+    private void drop(Runnable task) {
+        ((HitTask) task).dropped = true;
+        droppedCounter.increment();
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "stats-dispatcher-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Set to dropped by the rejection handler, which runs on the dispatching thread, so only hits that
+     * made it into the queue or were sent by the caller count as enqueued.
+     */
+    @RequiredArgsConstructor
+    private final class HitTask implements Runnable {
+        final String app;
+        final String uri;
+        final String ip;
+        final LocalDateTime timestamp;
+        boolean dropped;
+
+        @Override
+        public void run() {
+            send(app, uri, ip, timestamp);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.service.stats;
+
+public enum HitSheddingPolicy {
+    DROP_NEWEST,
+    DROP_OLDEST,
+    CALLER_RUNS
+}
@@ -1,5 +1,6 @@
 package ru.practicum.service.stats;
 
+import ru.practicum.dto.model.StatsQuery;
 import ru.practicum.dto.model.ViewStats;
 import ru.practicum.service.event.model.Event;
 
@@ -11,9 +12,9 @@ import java.util.Map;
 public interface StatsService {
     void addHit(HttpServletRequest request);
 
-    List<ViewStats> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique);
+    List<ViewStats> getStats(StatsQuery query);
 
     Map<Long, Long> getViews(List<Event> events);
 
-    Map<Long, Long> getConfirmedRequests(List<Event> events);
+    Map<Long, Long> getViews(Map<Long, LocalDateTime> published);
 }
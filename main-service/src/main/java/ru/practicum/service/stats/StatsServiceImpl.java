@@ -9,10 +9,12 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.client.StatsClient;
+import ru.practicum.dto.enums.StatsGrouping;
+import ru.practicum.dto.model.StatsQuery;
 import ru.practicum.dto.model.ViewStats;
+import ru.practicum.dto.sketch.HyperLogLog;
 import ru.practicum.service.CommonConstants;
 import ru.practicum.service.event.model.Event;
-import ru.practicum.service.request.repository.RequestRepository;
 
 import javax.servlet.http.HttpServletRequest;
 import java.io.IOException;
@@ -26,24 +28,26 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class StatsServiceImpl implements StatsService {
+    static final String EVENT_URI_PREFIX = "/events/";
     final StatsClient statsClient;
-    final RequestRepository requestRepository;
+    final HitDispatcher hitDispatcher;
+    final ViewsCache viewsCache;
     final ObjectMapper objectMapper;
 
     @Override
     public void addHit(HttpServletRequest httpServletRequest) {
         log.info("Method addHit invoke");
 
-        statsClient.addHit("main-service",
+        hitDispatcher.dispatch("main-service",
                 httpServletRequest.getRequestURI(),
                 httpServletRequest.getRemoteAddr(),
                 LocalDateTime.parse(LocalDateTime.now().format(CommonConstants.FORMATTER), CommonConstants.FORMATTER));
     }
 
     @Override
-    public List<ViewStats> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique) {
+    public List<ViewStats> getStats(StatsQuery query) {
         log.info("Method getStats invoke");
-        ResponseEntity<Object> response = statsClient.getStats(start, end, uris, unique);
+        ResponseEntity<Object> response = statsClient.queryStats(query);
         try {
             return Arrays.asList(objectMapper.readValue(objectMapper.writeValueAsString(response.getBody()), ViewStats[].class));
         } catch (IOException e) {
@@ -54,40 +58,46 @@ public class StatsServiceImpl implements StatsService {
     @Override
     public Map<Long, Long> getViews(List<Event> events) {
         log.info("Method getViews invoke");
-        Map<Long, Long> views = new HashMap<>();
-        if (events.isEmpty()) {
-            return views;
-        }
-        List<Event> publishedEvents = events.stream()
-                .filter(event -> event.getPublishedOn() != null).collect(Collectors.toList());
-        Optional<LocalDateTime> timePublished = publishedEvents.stream().map(Event::getPublishedOn)
-                .filter(Objects::nonNull).min(LocalDateTime::compareTo);
-        if (timePublished.isPresent()) {
-            LocalDateTime start = timePublished.get();
-            List<String> uris = publishedEvents.stream().map(Event::getId)
-                    .map(id -> ("/events/" + id)).collect(Collectors.toList());
-            List<ViewStats> stats = getStats(start, LocalDateTime.now(), uris, true);
-            stats.forEach(stat -> {
-                Long eventId = Long.parseLong(stat.getUri().split("/", 0)[2]);
-                views.put(eventId, views.getOrDefault(eventId, 0L) + stat.getHits());
-            });
+        Map<Long, LocalDateTime> published = new HashMap<>();
+        events.stream().filter(event -> event.getPublishedOn() != null)
+                .forEach(event -> published.put(event.getId(), event.getPublishedOn()));
+        return getViews(published);
+    }
+
+    @Override
+    public Map<Long, Long> getViews(Map<Long, LocalDateTime> published) {
+        if (published.isEmpty()) {
+            return new HashMap<>();
         }
+        Map<Long, Long> views = viewsCache.get(published, this::loadViews, this::loadViewSketches);
         log.info("Number of views = {}", views.size());
         return views;
     }
 
-    @Override
-    public Map<Long, Long> getConfirmedRequests(List<Event> events) {
-        log.info("Method getConfirmedRequests invoke");
-        List<Long> eventsId = events.stream().filter(event -> event.getPublishedOn() != null)
-                .map(Event::getId).collect(Collectors.toList());
-        Map<Long, Long> requests = new HashMap<>();
-        if (!eventsId.isEmpty()) {
-            requestRepository.getAllEventIdsConfirmed(eventsId).forEach(eventWithRequests ->
-                    requests.put(eventWithRequests.getEventId(), eventWithRequests.getConfirmedRequests()));
-        }
-        log.info("Get information about confirmed requests");
-        return requests;
+    private Map<Long, Long> loadViews(Map<Long, LocalDateTime> since, LocalDateTime until) {
+        Map<Long, Long> views = new HashMap<>();
+        getStats(viewsQuery(since, until).build()).stream()
+                .filter(stat -> since.containsKey(stat.getId()))
+                .forEach(stat -> views.merge(stat.getId(), stat.getHits(), Long::sum));
+        return views;
     }
 
+    private Map<Long, HyperLogLog> loadViewSketches(Map<Long, LocalDateTime> since, LocalDateTime until) {
+        Map<Long, HyperLogLog> sketches = new HashMap<>();
+        getStats(viewsQuery(since, until).withSketches(true).build()).stream()
+                .filter(stat -> since.containsKey(stat.getId()))
+                .forEach(stat -> sketches.merge(stat.getId(),
+                        HyperLogLog.fromBytes(Base64.getDecoder().decode(stat.getIpSketch())), HyperLogLog::merge));
+        return sketches;
+    }
+
+    private StatsQuery.StatsQueryBuilder viewsQuery(Map<Long, LocalDateTime> since, LocalDateTime until) {
+        return StatsQuery.builder()
+                .start(Collections.min(since.values()))
+                .end(until)
+                .uris(since.keySet().stream().map(eventId -> EVENT_URI_PREFIX + eventId).collect(Collectors.toList()))
+                .withIds(true)
+                .grouping(StatsGrouping.URI)
+                .unique(true);
+    }
 }
@@ -0,0 +1,270 @@
+package ru.practicum.service.stats;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.dto.sketch.HyperLogLog;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-event view counts kept between stats-server calls. By default counts are exact: every load asks
+ * stats-server for the unique ips since the event was published. With {@code approximate} set, each entry
+ * also holds a HyperLogLog sketch of the visitor ips and the watermark up to which it was loaded; a reload
+ * only asks for the sketch of hits since the watermark minus {@code watermark-overlap-ms} and merges it in,
+ * so counts are estimates, see {@link HyperLogLog} for the error bound. The overlap picks up hits that reach
+ * stats-server late, and merging a sketch twice does not change it, so overlapping ranges are safe.
+ * Entries younger than {@code refresh-after-ms} are served as is; older ones are still served but reloaded
+ * in one background batch (stale-while-revalidate); entries past {@code ttl-ms} are reloaded on the calling
+ * thread. When the cache grows past its capacity expired entries and then the oldest ones are evicted. The
+ * capacity is {@code max-size} or, if larger, a quarter more than the published events the views sync walked
+ * last, so a sync pass does not evict the counts it is about to ask for again.
+ */
+@Component
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ViewsCache {
+    final Map<Long, CachedViews> entries = new ConcurrentHashMap<>();
+    final Set<Long> refreshing = ConcurrentHashMap.newKeySet();
+    final boolean approximate;
+    final int maxSize;
+    volatile int capacity;
+    final long refreshAfterMs;
+    final long ttlMs;
+    final long watermarkOverlapMs;
+    final ThreadPoolExecutor refresher;
+    final Counter hitCounter;
+    final Counter missCounter;
+    final Counter staleCounter;
+    final Counter refreshFailedCounter;
+    final DistributionSummary staleness;
+
+    public ViewsCache(MeterRegistry meterRegistry,
+                      @Value("${stats.views-cache.approximate}") boolean approximate,
+                      @Value("${stats.views-cache.max-size}") int maxSize,
+                      @Value("${stats.views-cache.refresh-after-ms}") long refreshAfterMs,
+                      @Value("${stats.views-cache.ttl-ms}") long ttlMs,
+                      @Value("${stats.views-cache.watermark-overlap-ms}") long watermarkOverlapMs,
+                      @Value("${stats.views-cache.refresh-queue-capacity}") int refreshQueueCapacity) {
+        this.approximate = approximate;
+        this.maxSize = maxSize;
+        this.capacity = maxSize;
+        this.refreshAfterMs = refreshAfterMs;
+        this.ttlMs = ttlMs;
+        this.watermarkOverlapMs = watermarkOverlapMs;
+        this.refresher = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(refreshQueueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "stats-views-refresher");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.hitCounter = meterRegistry.counter("stats.views.cache.hit");
+        this.missCounter = meterRegistry.counter("stats.views.cache.miss");
+        this.staleCounter = meterRegistry.counter("stats.views.cache.stale");
+        this.refreshFailedCounter = meterRegistry.counter("stats.views.cache.refresh.failed");
+        this.staleness = DistributionSummary.builder("stats.views.cache.staleness")
+                .description("Age of view counts served from the cache")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("stats.views.cache.size", entries, Map::size)
+                .register(meterRegistry);
+    }
+
+    public Map<Long, Long> get(Map<Long, LocalDateTime> published, CountLoader counts, SketchLoader sketches) {
+        long now = System.currentTimeMillis();
+        Map<Long, Long> views = new HashMap<>();
+        Map<Long, LocalDateTime> missing = new HashMap<>();
+        Map<Long, LocalDateTime> stale = new HashMap<>();
+        Map<Long, CachedViews> base = new HashMap<>();
+        published.forEach((eventId, publishedOn) -> {
+            CachedViews cached = entries.get(eventId);
+            if (cached == null) {
+                missing.put(eventId, publishedOn);
+                return;
+            }
+            LocalDateTime since = publishedOn;
+            if (approximate) {
+                base.put(eventId, cached);
+                since = cached.since(watermarkOverlapMs);
+            }
+            long age = now - cached.loadedAt;
+            if (age >= ttlMs) {
+                missing.put(eventId, since);
+                return;
+            }
+            views.put(eventId, cached.views);
+            staleness.record(age);
+            if (age >= refreshAfterMs) {
+                stale.put(eventId, since);
+            }
+        });
+        hitCounter.increment(views.size() - stale.size());
+        staleCounter.increment(stale.size());
+        missCounter.increment(missing.size());
+        if (!missing.isEmpty()) {
+            views.putAll(load(missing, base, counts, sketches));
+        }
+        if (!stale.isEmpty()) {
+            refreshAsync(stale, base, counts, sketches);
+        }
+        return views;
+    }
+
+    public void reserve(int publishedEvents) {
+        capacity = Math.max(maxSize, publishedEvents + publishedEvents / 4);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * Exact counts replace the cached ones. Sketches are merged into {@code base}, the entries the decision to
+     * load was made on, so an entry evicted or replaced in the meantime cannot lose the hits before its
+     * watermark.
+     */
+    private Map<Long, Long> load(Map<Long, LocalDateTime> since, Map<Long, CachedViews> base, CountLoader counts,
+                                 SketchLoader sketches) {
+        LocalDateTime watermark = LocalDateTime.now();
+        Map<Long, Long> views = new HashMap<>();
+        if (!approximate) {
+            Map<Long, Long> loaded = new HashMap<>();
+            groupBySince(since, base).forEach(group -> loaded.putAll(counts.load(group, watermark)));
+            long now = System.currentTimeMillis();
+            since.keySet().forEach(eventId -> {
+                CachedViews updated = new CachedViews(loaded.getOrDefault(eventId, 0L), now);
+                entries.put(eventId, updated);
+                views.put(eventId, updated.views);
+            });
+            evictIfFull(now);
+            return views;
+        }
+        Map<Long, HyperLogLog> deltas = new HashMap<>();
+        groupBySince(since, base).forEach(group -> deltas.putAll(sketches.load(group, watermark)));
+        long now = System.currentTimeMillis();
+        since.keySet().forEach(eventId -> {
+            HyperLogLog sketch = new HyperLogLog();
+            CachedViews cached = base.get(eventId);
+            if (cached != null) {
+                sketch.merge(cached.sketch);
+            }
+            HyperLogLog delta = deltas.get(eventId);
+            if (delta != null) {
+                sketch.merge(delta);
+            }
+            CachedViews updated = new CachedViews(sketch, watermark, now);
+            entries.put(eventId, updated);
+            views.put(eventId, updated.views);
+        });
+        evictIfFull(now);
+        return views;
+    }
+
+    /**
+     * Each loader call asks for hits from the earliest start in its group, so starts are kept together only
+     * when they are close: entries loaded before share the watermark of that load and are grouped by it,
+     * entries never loaded start at their publication date and are grouped by its day. One old event thus
+     * cannot pull the reload of recently loaded ones back to its publication date.
+     */
+    private Collection<Map<Long, LocalDateTime>> groupBySince(Map<Long, LocalDateTime> since,
+                                                              Map<Long, CachedViews> base) {
+        Map<LocalDateTime, Map<Long, LocalDateTime>> groups = new HashMap<>();
+        since.forEach((eventId, start) -> {
+            LocalDateTime key = base.containsKey(eventId) ? start : start.truncatedTo(ChronoUnit.DAYS);
+            groups.computeIfAbsent(key, k -> new HashMap<>()).put(eventId, start);
+        });
+        return groups.values();
+    }
+
+    private void refreshAsync(Map<Long, LocalDateTime> stale, Map<Long, CachedViews> base, CountLoader counts,
+                              SketchLoader sketches) {
+        stale.keySet().removeIf(eventId -> !refreshing.add(eventId));
+        if (stale.isEmpty()) {
+            return;
+        }
+        try {
+            refresher.execute(() -> {
+                try {
+                    load(stale, base, counts, sketches);
+                } catch (RuntimeException e) {
+                    refreshFailedCounter.increment();
+                    log.warn("Failed to refresh views of {} events: {}", stale.size(), e.getMessage());
+                } finally {
+                    refreshing.removeAll(stale.keySet());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.removeAll(stale.keySet());
+        }
+    }
+
+    private void evictIfFull(long now) {
+        int limit = capacity;
+        if (entries.size() <= limit) {
+            return;
+        }
+        entries.values().removeIf(cached -> now - cached.loadedAt >= ttlMs);
+        int excess = entries.size() - limit;
+        if (excess > 0) {
+            entries.entrySet().stream()
+                    .sorted(Comparator.comparingLong(entry -> entry.getValue().loadedAt))
+                    .limit(excess)
+                    .map(Map.Entry::getKey)
+                    .forEach(entries::remove);
+        }
+    }
+
+    @FunctionalInterface
+    public interface CountLoader {
+        Map<Long, Long> load(Map<Long, LocalDateTime> since, LocalDateTime until);
+    }
+
+    @FunctionalInterface
+    public interface SketchLoader {
+        Map<Long, HyperLogLog> load(Map<Long, LocalDateTime> since, LocalDateTime until);
+    }
+
+    private static class CachedViews {
+        final HyperLogLog sketch;
+        final LocalDateTime watermark;
+        final long views;
+        final long loadedAt;
+
+        CachedViews(HyperLogLog sketch, LocalDateTime watermark, long loadedAt) {
+            this.sketch = sketch;
+            this.watermark = watermark;
+            this.views = sketch.estimate();
+            this.loadedAt = loadedAt;
+        }
+
+        CachedViews(long views, long loadedAt) {
+            this.sketch = null;
+            this.watermark = null;
+            this.views = views;
+            this.loadedAt = loadedAt;
+        }
+
+        LocalDateTime since(long overlapMs) {
+            return watermark.minus(overlapMs, ChronoUnit.MILLIS);
+        }
+    }
+}
@@ -10,6 +10,7 @@ import ru.practicum.service.user.dto.NewUserRequest;
 import ru.practicum.service.user.dto.UserDto;
 import ru.practicum.service.user.service.UserService;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
@@ -32,9 +33,11 @@ public class UserController {
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
     public List<UserDto> getUsers(@RequestParam (required = false) List<Long> ids,
+                                  @RequestParam (required = false) String after,
                                   @RequestParam (required = false, defaultValue = "0") @PositiveOrZero Integer from,
-                                  @RequestParam (required = false, defaultValue = "10") @Positive Integer size) {
-        return userService.getUsers(ids, from, size);
+                                  @RequestParam (required = false, defaultValue = "10") @Positive Integer size,
+                                  HttpServletResponse response) {
+        return userService.getUsers(ids, after, from, size).writeTo(response);
     }
 
     @DeleteMapping("/{userId}")
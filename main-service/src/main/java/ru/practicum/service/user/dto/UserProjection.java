@@ -0,0 +1,14 @@
+package ru.practicum.service.user.dto;
+
+import lombok.Value;
+
+/**
+ * Immutable copy of a user kept in the users cache. Callers get a new {@code User} built from it, so no entity
+ * instance is shared between threads.
+ */
+@Value
+public class UserProjection {
+    Long id;
+    String name;
+    String email;
+}
@@ -3,6 +3,7 @@ package ru.practicum.service.user.mapper;
 import org.mapstruct.Mapper;
 import ru.practicum.service.user.dto.NewUserRequest;
 import ru.practicum.service.user.dto.UserDto;
+import ru.practicum.service.user.dto.UserProjection;
 import ru.practicum.service.user.model.User;
 
 @Mapper(componentModel = "spring")
@@ -10,4 +11,6 @@ public interface UserMapper {
     User fromDtoToModel(NewUserRequest userDto);
 
     UserDto fromModelToDto(User user);
+
+    User fromProjectionToModel(UserProjection user);
 }
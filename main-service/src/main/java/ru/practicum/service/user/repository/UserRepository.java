@@ -2,11 +2,25 @@ package ru.practicum.service.user.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.service.CacheNames;
+import ru.practicum.service.user.dto.UserProjection;
 import ru.practicum.service.user.model.User;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Page<User> findAllByIdIn(List<Long> ids, Pageable page);
+
+    List<User> findAllByIdGreaterThanOrderByIdAsc(Long id, Pageable page);
+
+    List<User> findAllByIdInAndIdGreaterThanOrderByIdAsc(List<Long> ids, Long id, Pageable page);
+
+    @Cacheable(cacheNames = CacheNames.USERS, key = "#p0", unless = "#result == null")
+    @Query(value = "SELECT new ru.practicum.service.user.dto.UserProjection(u.id, u.name, u.email) " +
+            "FROM User AS u WHERE u.id = ?1")
+    Optional<UserProjection> findProjectionById(Long userId);
 }
@@ -1,5 +1,6 @@
 package ru.practicum.service.user.service;
 
+import ru.practicum.service.pagination.CursorPage;
 import ru.practicum.service.user.dto.NewUserRequest;
 import ru.practicum.service.user.dto.UserDto;
 import ru.practicum.service.user.model.User;
@@ -9,9 +10,11 @@ import java.util.List;
 public interface UserService {
     UserDto addUser(NewUserRequest newUserRequest);
 
-    List<UserDto> getUsers(List<Long> ids, Integer from, Integer size);
+    CursorPage<UserDto> getUsers(List<Long> ids, String after, Integer from, Integer size);
 
     void deleteUser(Long userId);
 
     User findUserById(Long userId);
+
+    void checkUserExists(Long userId);
 }
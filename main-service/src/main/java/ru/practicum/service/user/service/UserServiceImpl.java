@@ -4,11 +4,16 @@ import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.service.CacheNames;
 import ru.practicum.service.exception.EntityNotFoundException;
+import ru.practicum.service.pagination.Cursor;
+import ru.practicum.service.pagination.CursorPage;
 import ru.practicum.service.user.dto.NewUserRequest;
 import ru.practicum.service.user.dto.UserDto;
 import ru.practicum.service.user.mapper.UserMapper;
@@ -37,21 +42,29 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public List<UserDto> getUsers(List<Long> ids, Integer from, Integer size) {
+    public CursorPage<UserDto> getUsers(List<Long> ids, String after, Integer from, Integer size) {
         log.info("Method getUsers invoke");
-        Pageable page = PageRequest.of(from / size, size);
-        log.info("Get information about users");
-        if (ids == null || ids.isEmpty()) {
-            return userRepository.findAll(page).getContent().stream()
-                    .map(userMapper::fromModelToDto).collect(Collectors.toList());
+        Cursor cursor = Cursor.decode(after, Cursor.ID_SORT);
+        List<User> users;
+        if (cursor != null) {
+            Pageable page = PageRequest.of(0, size);
+            users = ids == null || ids.isEmpty()
+                    ? userRepository.findAllByIdGreaterThanOrderByIdAsc(cursor.getId(), page)
+                    : userRepository.findAllByIdInAndIdGreaterThanOrderByIdAsc(ids, cursor.getId(), page);
         } else {
-            return userRepository.findAllByIdIn(ids, page).getContent().stream()
-                    .map(userMapper::fromModelToDto).collect(Collectors.toList());
+            Pageable page = PageRequest.of(from / size, size, Sort.by("id"));
+            users = ids == null || ids.isEmpty()
+                    ? userRepository.findAll(page).getContent()
+                    : userRepository.findAllByIdIn(ids, page).getContent();
         }
+        log.info("Get information about users");
+        return new CursorPage<>(users.stream().map(userMapper::fromModelToDto).collect(Collectors.toList()),
+                Cursor.next(users, size, user -> Cursor.byId(user.getId())));
     }
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheNames.USERS, key = "#p0")
     public void deleteUser(Long userId) {
         log.info("Method deleteUser invoke");
         userRepository.findById(userId).orElseThrow(() -> new EntityNotFoundException("User not found"));
@@ -62,7 +75,14 @@ public class UserServiceImpl implements UserService {
     @Override
     public User findUserById(Long userId) {
         log.info("Get user id = " + userId);
-        return userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException("User not found"));
+        return userMapper.fromProjectionToModel(userRepository.findProjectionById(userId)
+                .orElseThrow(() -> new EntityNotFoundException("User not found")));
+    }
+
+    @Override
+    public void checkUserExists(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new EntityNotFoundException("User not found");
+        }
     }
 }
@@ -59,4 +59,4 @@ CREATE TABLE IF NOT EXISTS comments (
   user_id BIGINT REFERENCES users (id) ON DELETE CASCADE,
   event_id BIGINT REFERENCES events (id) ON DELETE CASCADE,
   created TIMESTAMP WITHOUT TIME ZONE
-);
\ No newline at end of file
+);
@@ -0,0 +1,8 @@
+UPDATE events SET location_id = (
+  SELECT MIN(d.id) FROM locations l JOIN locations d ON d.lat = l.lat AND d.lon = l.lon
+  WHERE l.id = events.location_id)
+WHERE location_id IS NOT NULL;
+
+DELETE FROM locations WHERE EXISTS (
+  SELECT 1 FROM locations d
+  WHERE d.lat = locations.lat AND d.lon = locations.lon AND d.id < locations.id);
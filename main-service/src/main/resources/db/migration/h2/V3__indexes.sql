@@ -0,0 +1,14 @@
+CREATE INDEX IF NOT EXISTS idx_events_state_views ON events (state, views, id);
+CREATE INDEX IF NOT EXISTS idx_events_state_event_date ON events (state, event_date, id);
+CREATE INDEX IF NOT EXISTS idx_events_user ON events (user_id, id);
+CREATE INDEX IF NOT EXISTS idx_events_category ON events (category_id);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_requests_event_requester ON requests (event_id, requester_id);
+CREATE INDEX IF NOT EXISTS idx_requests_event_status ON requests (event_id, status);
+CREATE INDEX IF NOT EXISTS idx_requests_requester ON requests (requester_id);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_compilations_events ON compilations_events (compilation_id, event_id);
+CREATE INDEX IF NOT EXISTS idx_compilations_events_event ON compilations_events (event_id);
+
+CREATE INDEX IF NOT EXISTS idx_comments_event ON comments (event_id, id);
+CREATE INDEX IF NOT EXISTS idx_comments_user_event ON comments (user_id, event_id);
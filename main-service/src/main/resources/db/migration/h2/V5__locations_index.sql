@@ -0,0 +1,2 @@
+CREATE UNIQUE INDEX IF NOT EXISTS uq_locations_lat_lon ON locations (lat, lon);
+CREATE INDEX IF NOT EXISTS idx_events_location ON events (location_id);
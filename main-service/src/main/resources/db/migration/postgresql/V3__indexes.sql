@@ -0,0 +1,40 @@
+-- A CONCURRENTLY build that fails leaves an INVALID index behind, and IF NOT EXISTS would keep it on retry.
+DO $$
+DECLARE
+  invalid RECORD;
+BEGIN
+  FOR invalid IN SELECT c.relname FROM pg_index i
+    JOIN pg_class c ON c.oid = i.indexrelid
+    JOIN pg_namespace n ON n.oid = c.relnamespace
+    WHERE NOT i.indisvalid AND n.nspname = current_schema()
+      AND c.relname IN (
+        'idx_events_state_views', 'idx_events_state_event_date', 'idx_events_user',
+        'idx_events_category', 'idx_events_search', 'idx_events_published_available',
+        'uq_requests_event_requester', 'idx_requests_event_status', 'idx_requests_requester',
+        'idx_requests_event_pending', 'uq_compilations_events', 'idx_compilations_events_event',
+        'idx_comments_event', 'idx_comments_user_event')
+  LOOP
+    EXECUTE format('DROP INDEX %I', invalid.relname);
+  END LOOP;
+END $$;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_events_state_views ON events (state, views, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_events_state_event_date ON events (state, event_date, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_events_user ON events (user_id, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_events_category ON events (category_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_events_search ON events
+  USING GIN (to_tsvector('simple', annotation || ' ' || description));
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_events_published_available ON events (event_date, id)
+  WHERE state = 'PUBLISHED' AND (participant_limit = 0 OR confirmed_requests < participant_limit);
+
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS uq_requests_event_requester ON requests (event_id, requester_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_requests_event_status ON requests (event_id, status);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_requests_requester ON requests (requester_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_requests_event_pending ON requests (event_id)
+  WHERE status = 'PENDING';
+
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS uq_compilations_events ON compilations_events (compilation_id, event_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_compilations_events_event ON compilations_events (event_id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_comments_event ON comments (event_id, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_comments_user_event ON comments (user_id, event_id);
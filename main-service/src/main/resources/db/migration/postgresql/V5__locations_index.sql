@@ -0,0 +1,16 @@
+DO $$
+DECLARE
+  invalid RECORD;
+BEGIN
+  FOR invalid IN SELECT c.relname FROM pg_index i
+    JOIN pg_class c ON c.oid = i.indexrelid
+    JOIN pg_namespace n ON n.oid = c.relnamespace
+    WHERE NOT i.indisvalid AND n.nspname = current_schema()
+      AND c.relname IN ('uq_locations_lat_lon', 'idx_events_location')
+  LOOP
+    EXECUTE format('DROP INDEX %I', invalid.relname);
+  END LOOP;
+END $$;
+
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS uq_locations_lat_lon ON locations (lat, lon);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_events_location ON events (location_id);
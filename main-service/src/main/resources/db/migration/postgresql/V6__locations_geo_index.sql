@@ -0,0 +1,17 @@
+-- Public search by area matches point(lon, lat) against a box, which a GiST index serves in both
+-- coordinates; the (lat, lon) btree of V5 only narrows by latitude and stays for the uniqueness.
+DO $$
+DECLARE
+  invalid RECORD;
+BEGIN
+  FOR invalid IN SELECT c.relname FROM pg_index i
+    JOIN pg_class c ON c.oid = i.indexrelid
+    JOIN pg_namespace n ON n.oid = c.relnamespace
+    WHERE NOT i.indisvalid AND n.nspname = current_schema()
+      AND c.relname IN ('idx_locations_point')
+  LOOP
+    EXECUTE format('DROP INDEX %I', invalid.relname);
+  END LOOP;
+END $$;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_locations_point ON locations USING GIST (point(lon, lat));
@@ -0,0 +1,17 @@
+package ru.practicum.service;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.service.stats.StatsService;
+
+/**
+ * Boots the application against in-memory H2 with the {@code test} profile. stats-server is not running,
+ * so {@link StatsService} is mocked and every event has no views.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public abstract class IntegrationTest {
+    @MockBean
+    protected StatsService statsService;
+}
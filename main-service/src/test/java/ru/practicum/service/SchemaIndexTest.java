@@ -0,0 +1,135 @@
+package ru.practicum.service;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Query plans on H2 for the lookups behind the event, request, comment and compilation repositories, on a few
+ * thousand rows seeded straight into the tables. H2 indexes every foreign key on its own, so single-column
+ * foreign key lookups only have to avoid a table scan; the composite filters must use the schema's index.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SchemaIndexTest extends IntegrationTest {
+    static final int USERS = 50;
+    static final int EVENTS = 500;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    List<Long> userIds;
+    List<Long> eventIds;
+    Long categoryId;
+    Long compilationId;
+
+    @BeforeAll
+    void seed() {
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(new Object[]{"plan" + i, "plan" + i + "@mail.ru"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (name, email) VALUES (?, ?)", users);
+        userIds = jdbcTemplate.queryForList("SELECT id FROM users WHERE email LIKE 'plan%'", Long.class);
+        jdbcTemplate.update("INSERT INTO categories (name) VALUES ('plan')");
+        categoryId = jdbcTemplate.queryForObject("SELECT id FROM categories WHERE name = 'plan'", Long.class);
+        jdbcTemplate.update("INSERT INTO locations (lat, lon) VALUES (10, 20)");
+        Long locationId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM locations", Long.class);
+
+        String[] states = {"PUBLISHED", "PENDING", "CANCELED"};
+        List<Object[]> events = new ArrayList<>();
+        for (int i = 0; i < EVENTS; i++) {
+            events.add(new Object[]{"Seeded plan event " + i, Timestamp.valueOf(LocalDateTime.now().plusHours(i)),
+                    states[i % states.length], categoryId, userIds.get(i % USERS), locationId});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO events (annotation, description, event_date, paid, participant_limit, " +
+                "request_moderation, title, state, category_id, user_id, location_id) " +
+                "VALUES (?, 'Seeded', ?, FALSE, 0, FALSE, 'Plan', ?, ?, ?, ?)", events);
+        eventIds = jdbcTemplate.queryForList(
+                "SELECT id FROM events WHERE annotation LIKE 'Seeded plan event %' ORDER BY id", Long.class);
+
+        String[] statuses = {"CONFIRMED", "PENDING", "REJECTED", "CANCELED"};
+        List<Object[]> requests = new ArrayList<>();
+        List<Object[]> comments = new ArrayList<>();
+        for (int i = 0; i < EVENTS; i++) {
+            for (int j = 1; j <= 4; j++) {
+                requests.add(new Object[]{eventIds.get(i), userIds.get((i + j) % USERS), statuses[(i + j) % 4]});
+            }
+            comments.add(new Object[]{eventIds.get(i), userIds.get((i + 1) % USERS)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO requests (event_id, requester_id, status) VALUES (?, ?, ?)", requests);
+        jdbcTemplate.batchUpdate("INSERT INTO comments (text, event_id, user_id) VALUES ('Seeded', ?, ?)", comments);
+
+        jdbcTemplate.update("INSERT INTO compilations (pinned, title) VALUES (FALSE, 'Seeded plan')");
+        compilationId = jdbcTemplate.queryForObject(
+                "SELECT id FROM compilations WHERE title = 'Seeded plan'", Long.class);
+        for (int i = 0; i < 10; i++) {
+            jdbcTemplate.update("INSERT INTO compilations_events (compilation_id, event_id) VALUES (?, ?)",
+                    compilationId, eventIds.get(i));
+        }
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void publicSearchUsesStateIndexes() {
+        assertThat(plan("SELECT id FROM events WHERE state = 'PUBLISHED' AND event_date > CURRENT_TIMESTAMP " +
+                "ORDER BY event_date, id")).contains("IDX_EVENTS_STATE_EVENT_DATE");
+        assertThat(plan("SELECT id FROM events WHERE state = 'PUBLISHED' ORDER BY views DESC, id"))
+                .contains("IDX_EVENTS_STATE_VIEWS");
+    }
+
+    @Test
+    void initiatorAndCategoryLookupsAvoidTableScans() {
+        assertThat(plan("SELECT id FROM events WHERE user_id = " + userIds.get(0) + " ORDER BY id"))
+                .doesNotContain("tableScan");
+        assertThat(plan("SELECT id FROM events WHERE category_id = " + categoryId)).doesNotContain("tableScan");
+    }
+
+    @Test
+    void requestCountsUseEventStatusIndex() {
+        assertThat(plan("SELECT COUNT(id) FROM requests WHERE event_id = " + eventIds.get(0) +
+                " AND status = 'CONFIRMED'")).contains("IDX_REQUESTS_EVENT_STATUS");
+        assertThat(plan("UPDATE requests SET status = 'REJECTED' WHERE event_id = " + eventIds.get(0) +
+                " AND status = 'PENDING'")).doesNotContain("tableScan");
+        assertThat(plan("SELECT id FROM requests WHERE requester_id = " + userIds.get(0)))
+                .doesNotContain("tableScan");
+    }
+
+    @Test
+    void duplicateRequestIsRejectedByUniqueIndex() {
+        Long eventId = eventIds.get(0);
+        Long requesterId = jdbcTemplate.queryForObject(
+                "SELECT requester_id FROM requests WHERE event_id = ? LIMIT 1", Long.class, eventId);
+
+        assertThat(plan("SELECT id FROM requests WHERE event_id = " + eventId + " AND requester_id = " +
+                requesterId)).contains("UQ_REQUESTS_EVENT_REQUESTER");
+        assertThatThrownBy(() -> jdbcTemplate.update(
+                "INSERT INTO requests (event_id, requester_id, status) VALUES (?, ?, 'PENDING')", eventId, requesterId))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void commentAndCompilationLookupsUseIndexes() {
+        assertThat(plan("SELECT id FROM comments WHERE event_id = " + eventIds.get(0) + " ORDER BY id"))
+                .doesNotContain("tableScan");
+        assertThat(plan("SELECT id FROM comments WHERE user_id = " + userIds.get(1) + " AND event_id = " +
+                eventIds.get(0))).contains("IDX_COMMENTS_USER_EVENT");
+        assertThat(plan("SELECT event_id FROM compilations_events WHERE compilation_id = " + compilationId))
+                .contains("UQ_COMPILATIONS_EVENTS");
+        assertThat(plan("SELECT compilation_id FROM compilations_events WHERE event_id = " + eventIds.get(0)))
+                .doesNotContain("tableScan");
+    }
+
+    private String plan(String query) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + query, String.class);
+    }
+}
@@ -0,0 +1,75 @@
+package ru.practicum.service.category;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.service.CacheNames;
+import ru.practicum.service.IntegrationTest;
+import ru.practicum.service.category.dto.CategoryDto;
+import ru.practicum.service.category.dto.NewCategoryDto;
+import ru.practicum.service.category.model.Category;
+import ru.practicum.service.category.service.CategoryService;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The categories cache holds immutable copies, hands every caller its own entity, and is only evicted once the
+ * update that evicts it commits.
+ */
+class CategoryCacheTest extends IntegrationTest {
+    static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    CategoryService categoryService;
+    @Autowired
+    CacheManager cacheManager;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    Cache categories;
+    Long categoryId;
+
+    @BeforeEach
+    void setUp() {
+        categories = cacheManager.getCache(CacheNames.CATEGORIES);
+        categoryId = categoryService.addCategory(new NewCategoryDto("cached" + SEQUENCE.incrementAndGet())).getId();
+    }
+
+    @Test
+    void everyCallerGetsItsOwnCategory() {
+        Category first = categoryService.getCategoryById(categoryId);
+        first.setName("changed by the caller");
+        Category second = categoryService.getCategoryById(categoryId);
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getName()).startsWith("cached");
+    }
+
+    @Test
+    void rolledBackUpdateKeepsCachedCategory() {
+        String name = categoryService.getCategoryById(categoryId).getName();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            categoryService.updateCategory(categoryId, new CategoryDto(categoryId, "rolled back " + categoryId));
+            assertThat(categories.get(categoryId)).isNotNull();
+            status.setRollbackOnly();
+        });
+
+        assertThat(categories.get(categoryId)).isNotNull();
+        assertThat(categoryService.getCategoryById(categoryId).getName()).isEqualTo(name);
+    }
+
+    @Test
+    void committedUpdateEvictsCategory() {
+        categoryService.getCategoryById(categoryId);
+
+        categoryService.updateCategory(categoryId, new CategoryDto(categoryId, "renamed " + categoryId));
+
+        assertThat(categories.get(categoryId)).isNull();
+        assertThat(categoryService.getCategoryById(categoryId).getName()).isEqualTo("renamed " + categoryId);
+    }
+}
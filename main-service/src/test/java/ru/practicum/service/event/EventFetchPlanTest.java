@@ -0,0 +1,153 @@
+package ru.practicum.service.event;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.service.IntegrationTest;
+import ru.practicum.service.category.dto.NewCategoryDto;
+import ru.practicum.service.category.service.CategoryService;
+import ru.practicum.service.compilation.dto.NewCompilationDto;
+import ru.practicum.service.compilation.service.CompilationService;
+import ru.practicum.service.event.dto.EventFullDto;
+import ru.practicum.service.event.dto.LocationDto;
+import ru.practicum.service.event.dto.NewEventDto;
+import ru.practicum.service.event.dto.UpdateEventAdminRequest;
+import ru.practicum.service.event.enums.EventState;
+import ru.practicum.service.event.enums.StateAdminAction;
+import ru.practicum.service.event.service.EventService;
+import ru.practicum.service.user.dto.NewUserRequest;
+import ru.practicum.service.user.service.UserService;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Every seeded event has its own initiator, category and location. Mapping a page to DTOs must not fetch any
+ * of them lazily, so a page of one event and a page of all of them take the same number of statements.
+ */
+class EventFetchPlanTest extends IntegrationTest {
+    static final int EVENTS = 6;
+    static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    UserService userService;
+    @Autowired
+    CategoryService categoryService;
+    @Autowired
+    EventService eventService;
+    @Autowired
+    CompilationService compilationService;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    Statistics statistics;
+    List<Long> eventIds;
+    List<Long> initiatorIds;
+    List<Long> categoryIds;
+    Long ownerId;
+
+    @BeforeEach
+    void seed() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        eventIds = new ArrayList<>();
+        initiatorIds = new ArrayList<>();
+        categoryIds = new ArrayList<>();
+        ownerId = user();
+        for (int i = 0; i < EVENTS; i++) {
+            initiatorIds.add(user());
+            categoryIds.add(category());
+            eventIds.add(event(initiatorIds.get(i), categoryIds.get(i)).getId());
+            event(ownerId, categoryIds.get(i));
+        }
+    }
+
+    @Test
+    void findEventsByPublic() {
+        assertNoLazyLoads(size -> eventService.getEventsPublic(null, categoryIds, null, null, null, false, null, null,
+                null, 0, size, new MockHttpServletRequest()).getItems().size());
+    }
+
+    @Test
+    void findEventsByAdmin() {
+        assertNoLazyLoads(size -> eventService.getEventsAdmin(initiatorIds, List.of(EventState.PUBLISHED), null,
+                null, null, null, 0, size).getItems().size());
+    }
+
+    @Test
+    void findAllByInitiatorId() {
+        assertNoLazyLoads(size -> eventService.getEventsPrivate(ownerId, 0, size).size());
+    }
+
+    @Test
+    void findAllByIdIn() {
+        assertNoLazyLoads(size -> transactionTemplate.execute(status -> eventService.getEventShortWithViewsAndRequests(
+                eventService.getEventsByIdsList(eventIds.subList(0, size)))).size());
+    }
+
+    @Test
+    void compilationEventsAreBatchFetched() {
+        Long single = compilationService.addCompilation(
+                new NewCompilationDto(false, "Single " + SEQUENCE.incrementAndGet(), eventIds.subList(0, 1))).getId();
+        Long full = compilationService.addCompilation(
+                new NewCompilationDto(false, "Full " + SEQUENCE.incrementAndGet(), eventIds)).getId();
+
+        assertConstant(false, size -> compilationService.getCompilationById(size == 1 ? single : full)
+                .getEvents().size());
+    }
+
+    private void assertNoLazyLoads(PageListing listing) {
+        assertConstant(true, listing);
+    }
+
+    /**
+     * Lists a page of one event and a page of all of them. Without a fetch plan the associations may still be
+     * loaded lazily, as long as they are batched.
+     */
+    private void assertConstant(boolean fetchPlan, PageListing listing) {
+        long[] statements = new long[2];
+        int[] sizes = {1, EVENTS};
+        for (int i = 0; i < sizes.length; i++) {
+            statistics.clear();
+            assertThat(listing.list(sizes[i])).isEqualTo(sizes[i]);
+            if (fetchPlan) {
+                assertThat(statistics.getEntityFetchCount()).as("lazy fetches for %d events", sizes[i]).isZero();
+            }
+            statements[i] = statistics.getPrepareStatementCount();
+        }
+        assertThat(statements[1]).isEqualTo(statements[0]);
+    }
+
+    private Long user() {
+        int id = SEQUENCE.incrementAndGet();
+        return userService.addUser(new NewUserRequest("fetch" + id + "@mail.ru", "fetch" + id)).getId();
+    }
+
+    private Long category() {
+        return categoryService.addCategory(new NewCategoryDto("fetch" + SEQUENCE.incrementAndGet())).getId();
+    }
+
+    private EventFullDto event(Long initiatorId, Long categoryId) {
+        int id = SEQUENCE.incrementAndGet();
+        NewEventDto newEvent = new NewEventDto("Annotation of the fetched event " + id, categoryId,
+                "Description of the fetched event, long enough to be valid", LocalDateTime.now().plusDays(1),
+                new LocationDto(-40f, (float) id), false, 0L, false, "Fetched event");
+        Long eventId = eventService.addEventPrivate(initiatorId, newEvent).getId();
+        UpdateEventAdminRequest publish = new UpdateEventAdminRequest();
+        publish.setStateAction(StateAdminAction.PUBLISH_EVENT);
+        return eventService.updateEventAdmin(eventId, publish);
+    }
+
+    private interface PageListing {
+        int list(int size);
+    }
+}
@@ -0,0 +1,142 @@
+package ru.practicum.service.event;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import ru.practicum.service.IntegrationTest;
+import ru.practicum.service.category.dto.NewCategoryDto;
+import ru.practicum.service.category.service.CategoryService;
+import ru.practicum.service.event.dto.EventShortDto;
+import ru.practicum.service.event.dto.GeoArea;
+import ru.practicum.service.event.dto.LocationDto;
+import ru.practicum.service.event.dto.NewEventDto;
+import ru.practicum.service.event.dto.UpdateEventAdminRequest;
+import ru.practicum.service.event.enums.StateAdminAction;
+import ru.practicum.service.event.service.EventService;
+import ru.practicum.service.user.dto.NewUserRequest;
+import ru.practicum.service.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Radius search near the antimeridian and the poles, where the bounding box wraps or loses its longitude bound,
+ * and concurrent creation of events at a location nobody has used yet.
+ */
+class EventLocationTest extends IntegrationTest {
+    static final int THREADS = 16;
+    static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    UserService userService;
+    @Autowired
+    CategoryService categoryService;
+    @Autowired
+    EventService eventService;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    Long userId;
+    Long categoryId;
+
+    @BeforeEach
+    void setUp() {
+        int id = SEQUENCE.incrementAndGet();
+        userId = userService.addUser(new NewUserRequest("geo" + id + "@mail.ru", "geo" + id)).getId();
+        categoryId = categoryService.addCategory(new NewCategoryDto("geo" + id)).getId();
+    }
+
+    @Test
+    void nearCrossesAntimeridianEastward() {
+        Long across = event(10f, -179.9f);
+        Long same = event(10f, 179.95f);
+        event(10f, 179f);
+        event(10f, -179f);
+
+        assertThat(near(10f, 179.9f, 50f)).containsExactlyInAnyOrder(across, same);
+    }
+
+    @Test
+    void nearCrossesAntimeridianWestward() {
+        Long across = event(-10f, 179.9f);
+        event(-10f, 179f);
+
+        assertThat(near(-10f, -179.9f, 50f)).containsExactly(across);
+    }
+
+    @Test
+    void nearReachesNorthPole() {
+        Long acrossPole = event(89.8f, 180f);
+        Long aside = event(89.8f, 90f);
+        event(89f, 0f);
+
+        assertThat(near(89.8f, 0f, 50f)).containsExactlyInAnyOrder(acrossPole, aside);
+    }
+
+    @Test
+    void nearReachesSouthPole() {
+        Long acrossPole = event(-89.8f, -135f);
+        event(-89f, 45f);
+
+        assertThat(near(-89.8f, 45f, 50f)).containsExactly(acrossPole);
+    }
+
+    @Test
+    void concurrentEventsShareNewLocation() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CyclicBarrier barrier = new CyclicBarrier(THREADS);
+        try {
+            CompletableFuture<?>[] events = new CompletableFuture<?>[THREADS];
+            for (int i = 0; i < THREADS; i++) {
+                events[i] = CompletableFuture.supplyAsync(() -> {
+                    await(barrier);
+                    return eventService.addEventPrivate(userId, newEvent(new LocationDto(12.5f, 47.25f)));
+                }, executor);
+            }
+            CompletableFuture.allOf(events).get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(id) FROM locations WHERE lat = 12.5 AND lon = 47.25",
+                Long.class)).isEqualTo(1);
+    }
+
+    private Long event(float lat, float lon) {
+        Long eventId = eventService.addEventPrivate(userId, newEvent(new LocationDto(lat, lon))).getId();
+        UpdateEventAdminRequest publish = new UpdateEventAdminRequest();
+        publish.setStateAction(StateAdminAction.PUBLISH_EVENT);
+        return eventService.updateEventAdmin(eventId, publish).getId();
+    }
+
+    private List<Long> near(float lat, float lon, float radius) {
+        return eventService.getEventsPublic(null, List.of(categoryId), null, null, null, false,
+                        GeoArea.of(lat, lon, radius), null, null, 0, 100, new MockHttpServletRequest())
+                .getItems().stream().map(EventShortDto::getId).collect(Collectors.toList());
+    }
+
+    private NewEventDto newEvent(LocationDto location) {
+        return new NewEventDto("Annotation of the located event", categoryId,
+                "Description of the located event, long enough to be valid", LocalDateTime.now().plusDays(1),
+                location, false, 0L, false, "Located event");
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (InterruptedException | BrokenBarrierException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package ru.practicum.service.event;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import ru.practicum.service.IntegrationTest;
+import ru.practicum.service.category.dto.NewCategoryDto;
+import ru.practicum.service.category.service.CategoryService;
+import ru.practicum.service.event.dto.EventShortDto;
+import ru.practicum.service.event.dto.LocationDto;
+import ru.practicum.service.event.dto.NewEventDto;
+import ru.practicum.service.event.dto.UpdateEventAdminRequest;
+import ru.practicum.service.event.enums.EventSortType;
+import ru.practicum.service.event.enums.StateAdminAction;
+import ru.practicum.service.event.service.EventService;
+import ru.practicum.service.user.dto.NewUserRequest;
+import ru.practicum.service.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The stored views of three events are 30, 10 and 20 while stats-server already reports 1000 views for the
+ * first one. A page sorted by views must show the counts it is ordered by.
+ */
+class EventViewsSortTest extends IntegrationTest {
+    static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    UserService userService;
+    @Autowired
+    CategoryService categoryService;
+    @Autowired
+    EventService eventService;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    Long categoryId;
+    List<Long> eventIds;
+
+    @BeforeEach
+    void seed() {
+        int id = SEQUENCE.incrementAndGet();
+        Long userId = userService.addUser(new NewUserRequest("views" + id + "@mail.ru", "views" + id)).getId();
+        categoryId = categoryService.addCategory(new NewCategoryDto("views" + id)).getId();
+        eventIds = List.of(event(userId, 30), event(userId, 10), event(userId, 20));
+        when(statsService.getViews(anyMap())).thenReturn(Map.of(eventIds.get(0), 1000L));
+    }
+
+    @Test
+    void viewsSortShowsStoredViews() {
+        List<EventShortDto> events = search(EventSortType.VIEWS);
+
+        assertThat(events).extracting(EventShortDto::getId)
+                .containsExactly(eventIds.get(1), eventIds.get(2), eventIds.get(0));
+        assertThat(events).extracting(EventShortDto::getViews).containsExactly(10L, 20L, 30L);
+        verify(statsService, never()).getViews(anyMap());
+    }
+
+    @Test
+    void otherSortsShowLiveViews() {
+        Map<Long, Long> views = search(EventSortType.EVENT_DATE).stream()
+                .collect(Collectors.toMap(EventShortDto::getId, EventShortDto::getViews));
+
+        assertThat(views).containsOnly(Map.entry(eventIds.get(0), 1000L), Map.entry(eventIds.get(1), 0L),
+                Map.entry(eventIds.get(2), 0L));
+    }
+
+    private List<EventShortDto> search(EventSortType sort) {
+        return eventService.getEventsPublic(null, List.of(categoryId), null, null, null, false, null, sort, null,
+                0, 10, new MockHttpServletRequest()).getItems();
+    }
+
+    private Long event(Long userId, long views) {
+        int id = SEQUENCE.incrementAndGet();
+        NewEventDto newEvent = new NewEventDto("Annotation of the viewed event " + id, categoryId,
+                "Description of the viewed event, long enough to be valid", LocalDateTime.now().plusDays(1),
+                new LocationDto(-50f, (float) id), false, 0L, false, "Viewed event");
+        Long eventId = eventService.addEventPrivate(userId, newEvent).getId();
+        UpdateEventAdminRequest publish = new UpdateEventAdminRequest();
+        publish.setStateAction(StateAdminAction.PUBLISH_EVENT);
+        eventService.updateEventAdmin(eventId, publish);
+        jdbcTemplate.update("UPDATE events SET views = ? WHERE id = ?", views, eventId);
+        return eventId;
+    }
+}
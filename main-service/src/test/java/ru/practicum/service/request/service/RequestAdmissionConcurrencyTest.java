@@ -0,0 +1,141 @@
+package ru.practicum.service.request.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.practicum.service.IntegrationTest;
+import ru.practicum.service.category.dto.NewCategoryDto;
+import ru.practicum.service.category.service.CategoryService;
+import ru.practicum.service.event.dto.EventRequestStatusUpdateRequest;
+import ru.practicum.service.event.dto.LocationDto;
+import ru.practicum.service.event.dto.NewEventDto;
+import ru.practicum.service.event.dto.UpdateEventAdminRequest;
+import ru.practicum.service.event.enums.StateAdminAction;
+import ru.practicum.service.event.model.Event;
+import ru.practicum.service.event.repository.EventRepository;
+import ru.practicum.service.event.service.EventService;
+import ru.practicum.service.exception.ConflictException;
+import ru.practicum.service.request.dto.RequestStatus;
+import ru.practicum.service.request.dto.RequestStatusAction;
+import ru.practicum.service.request.repository.RequestRepository;
+import ru.practicum.service.user.dto.NewUserRequest;
+import ru.practicum.service.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hammers one event from many threads at once; the conditional counter update must admit exactly the limit
+ * whether requests are confirmed on creation or by the initiator.
+ */
+class RequestAdmissionConcurrencyTest extends IntegrationTest {
+    static final int THREADS = 16;
+    static final long LIMIT = 5;
+    static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    UserService userService;
+    @Autowired
+    CategoryService categoryService;
+    @Autowired
+    EventService eventService;
+    @Autowired
+    RequestService requestService;
+    @Autowired
+    EventRepository eventRepository;
+    @Autowired
+    RequestRepository requestRepository;
+
+    @Test
+    void concurrentSignUpsDoNotExceedLimit() throws Exception {
+        Long eventId = publishedEvent(user(), false);
+        List<Callable<Object>> signUps = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Long requesterId = user();
+            signUps.add(() -> requestService.addRequest(requesterId, eventId));
+        }
+
+        List<Throwable> failures = runConcurrently(signUps);
+
+        assertThat(confirmedRequests(eventId)).isEqualTo(LIMIT);
+        assertThat(requestRepository.countByEventIdAndStatus(eventId, RequestStatus.CONFIRMED)).isEqualTo(LIMIT);
+        assertThat(failures).hasSize(THREADS - (int) LIMIT).allMatch(ConflictException.class::isInstance);
+    }
+
+    @Test
+    void concurrentConfirmationsDoNotExceedLimit() throws Exception {
+        Long initiatorId = user();
+        Long eventId = publishedEvent(initiatorId, true);
+        List<Callable<Object>> confirmations = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Long requestId = requestService.addRequest(user(), eventId).getId();
+            confirmations.add(() -> requestService.updateUserEventRequestStatus(initiatorId, eventId,
+                    new EventRequestStatusUpdateRequest(List.of(requestId), RequestStatusAction.CONFIRMED)));
+        }
+
+        runConcurrently(confirmations);
+
+        assertThat(confirmedRequests(eventId)).isEqualTo(LIMIT);
+        assertThat(requestRepository.countByEventIdAndStatus(eventId, RequestStatus.CONFIRMED)).isEqualTo(LIMIT);
+    }
+
+    private Long user() {
+        int id = SEQUENCE.incrementAndGet();
+        return userService.addUser(new NewUserRequest("admission" + id + "@mail.ru", "admission" + id)).getId();
+    }
+
+    private Long publishedEvent(Long initiatorId, boolean moderation) {
+        int id = SEQUENCE.incrementAndGet();
+        Long categoryId = categoryService.addCategory(new NewCategoryDto("admission" + id)).getId();
+        NewEventDto newEvent = new NewEventDto("Popular event with a participant limit", categoryId,
+                "Description of the popular event, long enough to be valid", LocalDateTime.now().plusDays(1),
+                new LocationDto(55.75f, (float) id), false, LIMIT, moderation, "Popular event");
+        Long eventId = eventService.addEventPrivate(initiatorId, newEvent).getId();
+        UpdateEventAdminRequest publish = new UpdateEventAdminRequest();
+        publish.setStateAction(StateAdminAction.PUBLISH_EVENT);
+        return eventService.updateEventAdmin(eventId, publish).getId();
+    }
+
+    private long confirmedRequests(Long eventId) {
+        return eventRepository.findById(eventId).map(Event::getConfirmedRequests).orElseThrow();
+    }
+
+    /**
+     * Starts all tasks at once and returns the exceptions they failed with.
+     */
+    private List<Throwable> runConcurrently(List<Callable<Object>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Object>> futures = new ArrayList<>();
+            for (Callable<Object> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<Throwable> failures = new ArrayList<>();
+            for (Future<Object> future : futures) {
+                try {
+                    future.get(30, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    failures.add(e.getCause());
+                }
+            }
+            return failures;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
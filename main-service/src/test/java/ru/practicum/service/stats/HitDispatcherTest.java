@@ -0,0 +1,74 @@
+package ru.practicum.service.stats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.client.StatsClient;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * One dispatcher thread busy with the first hit and room for one more in the queue, so the third and fourth
+ * hits are shed.
+ */
+class HitDispatcherTest {
+    final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    final StatsClient statsClient = mock(StatsClient.class);
+    final CountDownLatch firstSendStarted = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final List<String> sent = new CopyOnWriteArrayList<>();
+
+    @Test
+    void dropOldestReplacesQueuedHitAndCountsOnlyAcceptedOnes() throws InterruptedException {
+        dispatchFour(HitSheddingPolicy.DROP_OLDEST);
+
+        assertThat(sent).containsExactly("/events/1", "/events/4");
+        assertThat(count("stats.dispatch.enqueued")).isEqualTo(4);
+        assertThat(count("stats.dispatch.dropped")).isEqualTo(2);
+        assertThat(count("stats.dispatch.sent")).isEqualTo(2);
+    }
+
+    @Test
+    void dropNewestDoesNotCountDroppedHitsAsEnqueued() throws InterruptedException {
+        dispatchFour(HitSheddingPolicy.DROP_NEWEST);
+
+        assertThat(sent).containsExactly("/events/1", "/events/2");
+        assertThat(count("stats.dispatch.enqueued")).isEqualTo(2);
+        assertThat(count("stats.dispatch.dropped")).isEqualTo(2);
+        assertThat(count("stats.dispatch.sent")).isEqualTo(2);
+    }
+
+    private void dispatchFour(HitSheddingPolicy sheddingPolicy) throws InterruptedException {
+        when(statsClient.addHit(anyString(), anyString(), anyString(), any(LocalDateTime.class)))
+                .thenAnswer(invocation -> {
+                    firstSendStarted.countDown();
+                    release.await();
+                    sent.add(invocation.getArgument(1));
+                    return ResponseEntity.ok().build();
+                });
+        HitDispatcher dispatcher = new HitDispatcher(statsClient, meterRegistry, 1, 1, sheddingPolicy);
+        LocalDateTime now = LocalDateTime.now();
+        dispatcher.dispatch("ewm-main-service", "/events/1", "10.0.0.1", now);
+        assertThat(firstSendStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 2; i <= 4; i++) {
+            dispatcher.dispatch("ewm-main-service", "/events/" + i, "10.0.0.1", now);
+        }
+        release.countDown();
+        dispatcher.shutdown();
+    }
+
+    private double count(String name) {
+        return meterRegistry.counter(name).count();
+    }
+}
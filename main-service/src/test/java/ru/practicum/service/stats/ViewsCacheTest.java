@@ -0,0 +1,96 @@
+package ru.practicum.service.stats;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.dto.sketch.HyperLogLog;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ViewsCacheTest {
+    final ViewsCache viewsCache = new ViewsCache(new SimpleMeterRegistry(), true, 100, 0, 0, 1000, 10);
+    final ViewsCache exactViewsCache = new ViewsCache(new SimpleMeterRegistry(), false, 100, 0, 0, 1000, 10);
+    final List<Map<Long, LocalDateTime>> loads = new ArrayList<>();
+    final Map<Long, Long> counts = new HashMap<>();
+
+    @AfterEach
+    void shutdown() {
+        viewsCache.shutdown();
+        exactViewsCache.shutdown();
+    }
+
+    @Test
+    void coldEventDoesNotWidenReloadOfWarmEvents() {
+        LocalDateTime now = LocalDateTime.now();
+        viewsCache.get(Map.of(1L, now.minusDays(1), 2L, now.minusDays(1)), this::count, this::load);
+        assertThat(loads).hasSize(1);
+        loads.clear();
+
+        viewsCache.get(Map.of(1L, now.minusDays(1), 2L, now.minusDays(1), 3L, now.minusYears(1)), this::count, this::load);
+
+        assertThat(loads).hasSize(2);
+        Map<Long, LocalDateTime> warm = loads.stream().filter(load -> load.containsKey(1L)).findFirst().orElseThrow();
+        assertThat(warm).containsOnlyKeys(1L, 2L);
+        assertThat(Collections.min(warm.values())).isAfter(now.minusMinutes(1));
+        Map<Long, LocalDateTime> cold = loads.stream().filter(load -> load.containsKey(3L)).findFirst().orElseThrow();
+        assertThat(cold).containsOnly(Map.entry(3L, now.minusYears(1)));
+    }
+
+    @Test
+    void coldEventsAreGroupedByPublishedDay() {
+        LocalDateTime day = LocalDateTime.now().minusDays(10).withHour(10);
+        viewsCache.get(Map.of(1L, day, 2L, day.plusHours(5), 3L, day.minusDays(30)), this::count, this::load);
+
+        assertThat(loads).hasSize(2);
+        assertThat(loads).anySatisfy(load -> assertThat(load).containsOnlyKeys(1L, 2L));
+        assertThat(loads).anySatisfy(load -> assertThat(load).containsOnlyKeys(3L));
+    }
+
+    @Test
+    void reservedCapacityKeepsEveryPublishedEvent() {
+        ViewsCache sizedViewsCache = new ViewsCache(new SimpleMeterRegistry(), false, 100, 60_000, 60_000, 1000, 10);
+        Map<Long, LocalDateTime> published = new HashMap<>();
+        for (long eventId = 1; eventId <= 150; eventId++) {
+            published.put(eventId, LocalDateTime.now().minusDays(1));
+        }
+        sizedViewsCache.reserve(published.size());
+        sizedViewsCache.get(published, this::count, this::load);
+        loads.clear();
+
+        sizedViewsCache.get(published, this::count, this::load);
+
+        assertThat(loads).isEmpty();
+        sizedViewsCache.shutdown();
+    }
+
+    @Test
+    void exactReloadCountsFromPublicationAndReplacesCount() {
+        LocalDateTime published = LocalDateTime.now().minusDays(3);
+        counts.put(1L, 5L);
+        assertThat(exactViewsCache.get(Map.of(1L, published), this::count, this::load)).containsEntry(1L, 5L);
+
+        counts.put(1L, 7L);
+        assertThat(exactViewsCache.get(Map.of(1L, published), this::count, this::load)).containsEntry(1L, 7L);
+
+        assertThat(loads).hasSize(2).allSatisfy(load -> assertThat(load).containsOnly(Map.entry(1L, published)));
+    }
+
+    private Map<Long, Long> count(Map<Long, LocalDateTime> since, LocalDateTime until) {
+        loads.add(new HashMap<>(since));
+        Map<Long, Long> views = new HashMap<>(counts);
+        views.keySet().retainAll(since.keySet());
+        return views;
+    }
+
+    private Map<Long, HyperLogLog> load(Map<Long, LocalDateTime> since, LocalDateTime until) {
+        loads.add(new HashMap<>(since));
+        return Map.of();
+    }
+}
@@ -0,0 +1,150 @@
+package ru.practicum.service.user;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.practicum.service.IntegrationTest;
+import ru.practicum.service.category.dto.NewCategoryDto;
+import ru.practicum.service.category.service.CategoryService;
+import ru.practicum.service.comment.dto.NewCommentDto;
+import ru.practicum.service.comment.service.CommentService;
+import ru.practicum.service.event.dto.LocationDto;
+import ru.practicum.service.event.dto.NewEventDto;
+import ru.practicum.service.event.dto.UpdateEventAdminRequest;
+import ru.practicum.service.event.enums.StateAdminAction;
+import ru.practicum.service.event.service.EventService;
+import ru.practicum.service.exception.ConflictException;
+import ru.practicum.service.exception.EntityNotFoundException;
+import ru.practicum.service.request.service.RequestService;
+import ru.practicum.service.user.dto.NewUserRequest;
+import ru.practicum.service.user.model.User;
+import ru.practicum.service.user.service.UserService;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Round trips per endpoint once existence and ownership are checked by id. The happy path must not add a user
+ * lookup to the endpoint's own query and writes; the failure paths add one existsById and never load a user.
+ */
+class ExistenceCheckRoundTripTest extends IntegrationTest {
+    static final AtomicInteger SEQUENCE = new AtomicInteger();
+    static final long UNKNOWN_USER = Long.MAX_VALUE;
+
+    @Autowired
+    UserService userService;
+    @Autowired
+    CategoryService categoryService;
+    @Autowired
+    EventService eventService;
+    @Autowired
+    RequestService requestService;
+    @Autowired
+    CommentService commentService;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    Statistics statistics;
+    Long initiatorId;
+    Long requesterId;
+    Long strangerId;
+    Long eventId;
+    Long requestId;
+    Long commentId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        initiatorId = user();
+        requesterId = user();
+        strangerId = user();
+        eventId = publishedEvent(initiatorId);
+        requestId = requestService.addRequest(requesterId, eventId).getId();
+        commentId = commentService.addCommentPrivate(requesterId, eventId, new NewCommentDto("First comment"))
+                .getId();
+    }
+
+    @Test
+    void getRequests() {
+        assertThat(roundTrips(() -> assertThat(requestService.getRequests(requesterId)).hasSize(1))).isEqualTo(1);
+        assertThat(roundTrips(() -> assertThat(requestService.getRequests(strangerId)).isEmpty())).isEqualTo(2);
+        assertThat(roundTrips(() -> assertThatThrownBy(() -> requestService.getRequests(UNKNOWN_USER))
+                .isInstanceOf(EntityNotFoundException.class))).isEqualTo(2);
+        assertNoUserLoaded();
+    }
+
+    @Test
+    void cancelEventRequest() {
+        assertThat(roundTrips(() -> assertThatThrownBy(() -> requestService.cancelEventRequest(strangerId, requestId))
+                .isInstanceOf(ConflictException.class))).isEqualTo(2);
+        assertNoUserLoaded();
+        // select the request, release the confirmed place, update the request
+        assertThat(roundTrips(() -> requestService.cancelEventRequest(requesterId, requestId))).isEqualTo(3);
+        assertNoUserLoaded();
+    }
+
+    @Test
+    void getEventByInitiator() {
+        assertThat(roundTrips(() -> eventService.getEventPrivate(initiatorId, eventId))).isEqualTo(1);
+        assertThat(roundTrips(() -> assertThatThrownBy(() -> eventService.getEventPrivate(strangerId, eventId))
+                .isInstanceOf(EntityNotFoundException.class))).isEqualTo(2);
+    }
+
+    @Test
+    void getEventsPrivate() {
+        assertThat(roundTrips(() -> assertThat(eventService.getEventsPrivate(initiatorId, 0, 10)).hasSize(1)))
+                .isEqualTo(1);
+        assertThat(roundTrips(() -> assertThatThrownBy(() -> eventService.getEventsPrivate(UNKNOWN_USER, 0, 10))
+                .isInstanceOf(EntityNotFoundException.class))).isEqualTo(2);
+        assertNoUserLoaded();
+    }
+
+    @Test
+    void updateCommentPrivate() {
+        // the comment is loaded once, together with the author the response shows
+        assertThat(roundTrips(() -> commentService.updateCommentPrivate(requesterId, commentId,
+                new NewCommentDto("Edited comment")))).isEqualTo(2);
+        assertThat(roundTrips(() -> assertThatThrownBy(() -> commentService.updateCommentPrivate(strangerId,
+                commentId, new NewCommentDto("Hijacked comment"))).isInstanceOf(ConflictException.class)))
+                .isEqualTo(2);
+    }
+
+    @Test
+    void deleteCommentByUser() {
+        assertThat(roundTrips(() -> assertThatThrownBy(() -> commentService.deleteCommentByUser(strangerId,
+                commentId)).isInstanceOf(ConflictException.class))).isEqualTo(2);
+        assertThat(roundTrips(() -> commentService.deleteCommentByUser(requesterId, commentId))).isEqualTo(2);
+    }
+
+    private long roundTrips(Runnable call) {
+        statistics.clear();
+        call.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void assertNoUserLoaded() {
+        assertThat(statistics.getEntityStatistics(User.class.getName()).getLoadCount()).isZero();
+    }
+
+    private Long user() {
+        int id = SEQUENCE.incrementAndGet();
+        return userService.addUser(new NewUserRequest("exists" + id + "@mail.ru", "exists" + id)).getId();
+    }
+
+    private Long publishedEvent(Long userId) {
+        int id = SEQUENCE.incrementAndGet();
+        Long categoryId = categoryService.addCategory(new NewCategoryDto("exists" + id)).getId();
+        NewEventDto newEvent = new NewEventDto("Annotation of the owned event " + id, categoryId,
+                "Description of the owned event, long enough to be valid", LocalDateTime.now().plusDays(1),
+                new LocationDto(30f, (float) id), false, 0L, false, "Owned event");
+        Long eventId = eventService.addEventPrivate(userId, newEvent).getId();
+        UpdateEventAdminRequest publish = new UpdateEventAdminRequest();
+        publish.setStateAction(StateAdminAction.PUBLISH_EVENT);
+        return eventService.updateEventAdmin(eventId, publish).getId();
+    }
+}
@@ -0,0 +1,102 @@
+package ru.practicum.client;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.dto.model.EndpointHit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Buffers hits on the client and ships them in batches once {@code batchSize} hits are buffered
+ * or {@code flushIntervalMs} has passed. Hits offered to a full buffer are counted as overflow,
+ * accepted hits whose batch could not be delivered are counted as dropped.
+ */
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class HitBatcher {
+    final BlockingQueue<EndpointHit> buffer;
+    final int batchSize;
+    final Predicate<List<EndpointHit>> sender;
+    final ScheduledExecutorService scheduler;
+    final AtomicLong sentCount = new AtomicLong();
+    final AtomicLong overflowCount = new AtomicLong();
+    final AtomicLong droppedCount = new AtomicLong();
+
+    public HitBatcher(int bufferCapacity, int batchSize, long flushIntervalMs,
+                      Predicate<List<EndpointHit>> sender) {
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        this.batchSize = batchSize;
+        this.sender = sender;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stats-client-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean add(EndpointHit endpointHit) {
+        if (!buffer.offer(endpointHit)) {
+            overflowCount.incrementAndGet();
+            return false;
+        }
+        if (buffer.size() >= batchSize) {
+            scheduler.execute(this::flush);
+        }
+        return true;
+    }
+
+    public synchronized void flush() {
+        List<EndpointHit> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            boolean sent;
+            try {
+                sent = sender.test(batch);
+            } catch (RuntimeException e) {
+                log.warn("Failed to send {} hits: {}", batch.size(), e.getMessage());
+                sent = false;
+            }
+            if (sent) {
+                sentCount.addAndGet(batch.size());
+            } else {
+                droppedCount.addAndGet(batch.size());
+            }
+            batch.clear();
+        }
+    }
+
+    public void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    public int getBuffered() {
+        return buffer.size();
+    }
+
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    public long getOverflowCount() {
+        return overflowCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+}
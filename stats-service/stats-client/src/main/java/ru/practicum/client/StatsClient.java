@@ -6,14 +6,18 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.dto.model.EndpointHit;
+import ru.practicum.dto.model.StatsQuery;
 
+import javax.annotation.PreDestroy;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -24,14 +28,24 @@ public class StatsClient extends BaseClient {
 
     static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+    final HitBatcher hitBatcher;
+
     @Autowired
-    public StatsClient(@Value("${stats-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public StatsClient(@Value("${stats-server.url}") String serverUrl, RestTemplateBuilder builder,
+                       @Value("${stats-server.batch.enabled:false}") boolean batchEnabled,
+                       @Value("${stats-server.batch.size:100}") int batchSize,
+                       @Value("${stats-server.batch.flush-interval-ms:1000}") long flushIntervalMs,
+                       @Value("${stats-server.batch.buffer-capacity:10000}") int bufferCapacity) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl))
                         .requestFactory(HttpComponentsClientHttpRequestFactory::new)
                         .build()
         );
+        this.hitBatcher = batchEnabled
+                ? new HitBatcher(bufferCapacity, batchSize, flushIntervalMs,
+                        batch -> addHits(batch).getStatusCode().is2xxSuccessful())
+                : null;
     }
 
     public ResponseEntity<Object> addHit(String app, String uri, String ip, LocalDateTime timestamp) {
@@ -40,10 +54,41 @@ public class StatsClient extends BaseClient {
         endpointHit.setUri(uri);
         endpointHit.setIp(ip);
         endpointHit.setTimestamp(timestamp.format(FORMATTER));
+        if (hitBatcher != null) {
+            if (!hitBatcher.add(endpointHit)) {
+                log.warn("Hit buffer is full, hit dropped");
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+            }
+            return ResponseEntity.status(HttpStatus.ACCEPTED).build();
+        }
         log.info("Hit saved");
         return post("/hit", endpointHit);
     }
 
+    public ResponseEntity<Object> addHits(List<EndpointHit> endpointHits) {
+        log.info("Send {} hits", endpointHits.size());
+        return post("/hits", endpointHits);
+    }
+
+    public long getBufferedHits() {
+        return hitBatcher != null ? hitBatcher.getBuffered() : 0;
+    }
+
+    public long getOverflowHits() {
+        return hitBatcher != null ? hitBatcher.getOverflowCount() : 0;
+    }
+
+    public long getDroppedHits() {
+        return hitBatcher != null ? hitBatcher.getDroppedCount() : 0;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (hitBatcher != null) {
+            hitBatcher.close();
+        }
+    }
+
     public ResponseEntity<Object> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique) {
         if (start == null || end == null || start.isAfter(end)) {
             throw new IllegalArgumentException("Invalid date");
@@ -66,4 +111,46 @@ public class StatsClient extends BaseClient {
         return get(stringBuilder.toString(), params);
     }
 
+    public ResponseEntity<Object> getStats(StatsQuery query) {
+        if (query.getStart() == null || query.getEnd() == null || query.getStart().isAfter(query.getEnd())) {
+            throw new IllegalArgumentException("Invalid date");
+        }
+        StringBuilder stringBuilder = new StringBuilder("stats/?start={start}&end={end}");
+        Map<String, Object> params = new HashMap<>();
+        params.put("start", query.getStart().format(FORMATTER));
+        params.put("end", query.getEnd().format(FORMATTER));
+        if (query.getUris() != null && !query.getUris().isEmpty()) {
+            for (String uri : query.getUris()) {
+                stringBuilder.append("&uris=").append(uri);
+            }
+        }
+        appendParam(stringBuilder, params, "uriPrefix", query.getUriPrefix());
+        appendParam(stringBuilder, params, "idFrom", query.getIdFrom());
+        appendParam(stringBuilder, params, "idTo", query.getIdTo());
+        appendParam(stringBuilder, params, "withIds", query.getWithIds());
+        appendParam(stringBuilder, params, "withSketches", query.getWithSketches());
+        appendParam(stringBuilder, params, "grouping", query.getGrouping());
+        appendParam(stringBuilder, params, "unique", query.getUnique());
+        appendParam(stringBuilder, params, "approximate", query.getApproximate());
+        appendParam(stringBuilder, params, "limit", query.getLimit());
+        appendParam(stringBuilder, params, "offset", query.getOffset());
+        appendParam(stringBuilder, params, "minHits", query.getMinHits());
+        log.info("Get statistics information");
+        return get(stringBuilder.toString(), params);
+    }
+
+    public ResponseEntity<Object> queryStats(StatsQuery query) {
+        if (query.getStart() == null || query.getEnd() == null || query.getStart().isAfter(query.getEnd())) {
+            throw new IllegalArgumentException("Invalid date");
+        }
+        log.info("Query statistics information");
+        return post("/stats/query", query);
+    }
+
+    private void appendParam(StringBuilder stringBuilder, Map<String, Object> params, String name, Object value) {
+        if (value != null) {
+            stringBuilder.append("&").append(name).append("={").append(name).append("}");
+            params.put(name, value);
+        }
+    }
 }
@@ -0,0 +1,6 @@
+package ru.practicum.dto.enums;
+
+public enum StatsGrouping {
+    APP_URI,
+    URI
+}
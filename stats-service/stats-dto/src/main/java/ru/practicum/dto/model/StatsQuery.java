@@ -0,0 +1,78 @@
+package ru.practicum.dto.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.dto.CommonConstants;
+import ru.practicum.dto.enums.StatsGrouping;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class StatsQuery {
+    @NotNull
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = CommonConstants.DATE_FORMAT)
+    LocalDateTime start;
+    @NotNull
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = CommonConstants.DATE_FORMAT)
+    LocalDateTime end;
+    List<String> uris;
+    String uriPrefix;
+    Long idFrom;
+    Long idTo;
+    @NotNull
+    @Builder.Default
+    Boolean withIds = false;
+    @NotNull
+    @Builder.Default
+    Boolean withSketches = false;
+    @NotNull
+    @Builder.Default
+    Boolean unique = false;
+    @NotNull
+    @Builder.Default
+    Boolean approximate = false;
+    @NotNull
+    @Builder.Default
+    StatsGrouping grouping = StatsGrouping.APP_URI;
+    @Positive
+    Integer limit;
+    @NotNull
+    @PositiveOrZero
+    @Builder.Default
+    Integer offset = 0;
+    @NotNull
+    @PositiveOrZero
+    @Builder.Default
+    Long minHits = 0L;
+
+    public static Long parseId(String uri, String uriPrefix) {
+        String id = uriPrefix != null && uri.startsWith(uriPrefix)
+                ? uri.substring(uriPrefix.length())
+                : uri.substring(uri.lastIndexOf('/') + 1);
+        if (id.isEmpty() || id.length() > 18 || !id.chars().allMatch(Character::isDigit)) {
+            return null;
+        }
+        return Long.parseLong(id);
+    }
+
+    public boolean groupsByApp() {
+        return grouping != StatsGrouping.URI;
+    }
+
+    public boolean hasIdRange() {
+        return idFrom != null || idTo != null;
+    }
+
+    public boolean acceptsId(Long id) {
+        return id != null && (idFrom == null || id >= idFrom) && (idTo == null || id <= idTo);
+    }
+}
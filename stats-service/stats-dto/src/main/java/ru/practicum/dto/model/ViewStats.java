@@ -1,5 +1,6 @@
 package ru.practicum.dto.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 
@@ -7,9 +8,16 @@ import lombok.experimental.FieldDefaults;
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class ViewStats {
     String app;
     String uri;
     Long hits;
+    Long id;
+    String ipSketch;
+
+    public ViewStats(String app, String uri, Long hits) {
+        this(app, uri, hits, null, null);
+    }
 }
@@ -0,0 +1,193 @@
+package ru.practicum.dto.sketch;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * HyperLogLog distinct-count sketch with 2^11 = 2048 one-byte registers (at most 2 KB serialized).
+ * The relative standard error of {@link #estimate()} is 1.04 / sqrt(2048), about 2.3%, so
+ * roughly 95% of estimates fall within 4.6% of the true count. Below about 5000 distinct values
+ * linear counting is used and estimates are close to exact. Sketches are merged by taking
+ * the register-wise maximum, so merging is lossless and adding the same value twice is a no-op.
+ * <p>
+ * Up to {@value #SPARSE_LIMIT} non-zero registers are kept sparse, as sorted (index, rank) pairs that
+ * serialize to 3 bytes each; past that the sketch switches to the dense register array. A sketch of a
+ * few visitors thus takes a few bytes, and a sparse one never more than 1.5 KB. Both encodings are read
+ * back by {@link #fromBytes(byte[])}.
+ */
+public class HyperLogLog {
+    public static final int PRECISION = 11;
+    private static final int REGISTERS = 1 << PRECISION;
+    private static final int SPARSE_LIMIT = 512;
+    private static final byte SPARSE = (byte) (0x80 | PRECISION);
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private byte[] registers;
+    private int[] entries;
+    private int size;
+
+    public HyperLogLog() {
+        this.entries = new int[8];
+    }
+
+    private HyperLogLog(byte[] registers) {
+        this.registers = registers;
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes != null && bytes.length == REGISTERS + 1 && bytes[0] == PRECISION) {
+            return new HyperLogLog(Arrays.copyOfRange(bytes, 1, bytes.length));
+        }
+        if (bytes == null || bytes.length % 3 != 1 || bytes[0] != SPARSE) {
+            throw new IllegalArgumentException("Not a HyperLogLog sketch of precision " + PRECISION);
+        }
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 1; i < bytes.length; i += 3) {
+            sketch.set((bytes[i] & 0xff) << 8 | bytes[i + 1] & 0xff, bytes[i + 2]);
+        }
+        return sketch;
+    }
+
+    public void add(String value) {
+        long hash = hash(value.getBytes(StandardCharsets.UTF_8));
+        int index = (int) (hash >>> (Long.SIZE - PRECISION));
+        int rank = Math.min(Long.numberOfLeadingZeros(hash << PRECISION), Long.SIZE - PRECISION) + 1;
+        set(index, rank);
+    }
+
+    public HyperLogLog merge(HyperLogLog other) {
+        if (other.registers == null) {
+            for (int i = 0; i < other.size; i++) {
+                set(other.entries[i] >>> 8, other.entries[i] & 0xff);
+            }
+            return this;
+        }
+        densify();
+        for (int i = 0; i < REGISTERS; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+        return this;
+    }
+
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        if (registers == null) {
+            zeros = REGISTERS - size;
+            sum = zeros;
+            for (int i = 0; i < size; i++) {
+                sum += 1.0 / (1L << (entries[i] & 0xff));
+            }
+        } else {
+            for (byte register : registers) {
+                sum += 1.0 / (1L << register);
+                if (register == 0) {
+                    zeros++;
+                }
+            }
+        }
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Sparse unless more than {@value #SPARSE_LIMIT} registers are set, also for a dense sketch read from an
+     * older, always dense blob.
+     */
+    public byte[] toBytes() {
+        if (registers == null) {
+            return toSparseBytes(entries, size);
+        }
+        int[] nonZero = new int[SPARSE_LIMIT];
+        int count = 0;
+        for (int i = 0; i < REGISTERS; i++) {
+            if (registers[i] == 0) {
+                continue;
+            }
+            if (count == SPARSE_LIMIT) {
+                byte[] bytes = new byte[REGISTERS + 1];
+                bytes[0] = PRECISION;
+                System.arraycopy(registers, 0, bytes, 1, REGISTERS);
+                return bytes;
+            }
+            nonZero[count++] = i << 8 | registers[i];
+        }
+        return toSparseBytes(nonZero, count);
+    }
+
+    private static byte[] toSparseBytes(int[] entries, int size) {
+        byte[] bytes = new byte[1 + 3 * size];
+        bytes[0] = SPARSE;
+        for (int i = 0; i < size; i++) {
+            int index = entries[i] >>> 8;
+            bytes[1 + 3 * i] = (byte) (index >>> 8);
+            bytes[2 + 3 * i] = (byte) index;
+            bytes[3 + 3 * i] = (byte) entries[i];
+        }
+        return bytes;
+    }
+
+    private void set(int index, int rank) {
+        if (index >= REGISTERS || rank <= 0 || rank > Long.SIZE - PRECISION + 1) {
+            throw new IllegalArgumentException("Register " + index + " out of range or rank " + rank + " invalid");
+        }
+        if (registers != null) {
+            if (rank > registers[index]) {
+                registers[index] = (byte) rank;
+            }
+            return;
+        }
+        // entries are index << 8 | rank with rank >= 1, so this finds the entry of the index or where it goes
+        int position = -Arrays.binarySearch(entries, 0, size, index << 8) - 1;
+        if (position < size && entries[position] >>> 8 == index) {
+            if (rank > (entries[position] & 0xff)) {
+                entries[position] = index << 8 | rank;
+            }
+            return;
+        }
+        if (size == SPARSE_LIMIT) {
+            densify();
+            registers[index] = (byte) rank;
+            return;
+        }
+        if (size == entries.length) {
+            entries = Arrays.copyOf(entries, size * 2);
+        }
+        System.arraycopy(entries, position, entries, position + 1, size - position);
+        entries[position] = index << 8 | rank;
+        size++;
+    }
+
+    private void densify() {
+        if (registers != null) {
+            return;
+        }
+        registers = new byte[REGISTERS];
+        for (int i = 0; i < size; i++) {
+            registers[entries[i] >>> 8] = (byte) entries[i];
+        }
+        entries = null;
+        size = 0;
+    }
+
+    private static long hash(byte[] bytes) {
+        long hash = FNV_OFFSET;
+        for (byte b : bytes) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -1,26 +1,38 @@
 package ru.practicum.server.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.dto.CommonConstants;
+import ru.practicum.dto.enums.StatsGrouping;
 import ru.practicum.dto.model.EndpointHit;
+import ru.practicum.dto.model.StatsQuery;
 import ru.practicum.dto.model.ViewStats;
 import ru.practicum.server.exception.DateException;
 import ru.practicum.server.service.StatsService;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
+@Validated
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class StatsController {
     final StatsService statsService;
+    final ObjectMapper objectMapper;
 
     @PostMapping("/hit")
     @ResponseStatus(HttpStatus.CREATED)
@@ -28,14 +40,61 @@ public class StatsController {
         statsService.addHit(endpointHit);
     }
 
+    @PostMapping(value = "/hits", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public void addHits(@RequestBody List<EndpointHit> endpointHits) {
+        statsService.addHits(endpointHits.iterator());
+    }
+
+    @PostMapping(value = "/hits", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public void addHitsStream(InputStream body) throws IOException {
+        try (MappingIterator<EndpointHit> endpointHits = objectMapper.readerFor(EndpointHit.class).readValues(body)) {
+            statsService.addHits(endpointHits);
+        }
+    }
+
     @GetMapping("/stats")
     public List<ViewStats> getStats(@RequestParam (value = "start") @DateTimeFormat(pattern = CommonConstants.DATE_FORMAT) LocalDateTime start,
                                     @RequestParam (value = "end") @DateTimeFormat(pattern = CommonConstants.DATE_FORMAT) LocalDateTime end,
                                     @RequestParam (value = "uris", required = false) List<String> uris,
-                                    @RequestParam (value = "unique",required = false, defaultValue = "false") Boolean unique) {
+                                    @RequestParam (value = "uriPrefix", required = false) String uriPrefix,
+                                    @RequestParam (value = "idFrom", required = false) Long idFrom,
+                                    @RequestParam (value = "idTo", required = false) Long idTo,
+                                    @RequestParam (value = "withIds", required = false, defaultValue = "false") Boolean withIds,
+                                    @RequestParam (value = "withSketches", required = false, defaultValue = "false") Boolean withSketches,
+                                    @RequestParam (value = "grouping", required = false, defaultValue = "APP_URI") StatsGrouping grouping,
+                                    @RequestParam (value = "unique",required = false, defaultValue = "false") Boolean unique,
+                                    @RequestParam (value = "approximate", required = false, defaultValue = "false") Boolean approximate,
+                                    @RequestParam (value = "limit", required = false) @Positive Integer limit,
+                                    @RequestParam (value = "offset", required = false, defaultValue = "0") @PositiveOrZero Integer offset,
+                                    @RequestParam (value = "minHits", required = false, defaultValue = "0") @PositiveOrZero Long minHits) {
         if (start.isAfter(end)) {
             throw new DateException("Illegal Date");
         }
-        return statsService.getStats(start, end, uris, unique);
+        return statsService.getStats(StatsQuery.builder()
+                .start(start)
+                .end(end)
+                .uris(uris)
+                .uriPrefix(uriPrefix)
+                .idFrom(idFrom)
+                .idTo(idTo)
+                .withIds(withIds)
+                .withSketches(withSketches)
+                .grouping(grouping)
+                .unique(unique)
+                .approximate(approximate)
+                .limit(limit)
+                .offset(offset)
+                .minHits(minHits)
+                .build());
+    }
+
+    @PostMapping("/stats/query")
+    public List<ViewStats> queryStats(@RequestBody @Valid StatsQuery query) {
+        if (query.getStart().isAfter(query.getEnd())) {
+            throw new DateException("Illegal Date");
+        }
+        return statsService.getStats(query);
     }
 }
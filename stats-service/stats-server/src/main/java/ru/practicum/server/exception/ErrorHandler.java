@@ -1,5 +1,7 @@
 package ru.practicum.server.exception;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
@@ -9,6 +11,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import javax.validation.ConstraintViolationException;
 import java.time.format.DateTimeParseException;
 
 @RestControllerAdvice
@@ -18,13 +21,21 @@ public class ErrorHandler {
     @ExceptionHandler({DateException.class, MethodArgumentNotValidException.class,
             DataIntegrityViolationException.class, IllegalArgumentException.class,
     MethodArgumentNotValidException.class, DateTimeParseException.class,
-            MissingServletRequestParameterException.class, ClassCastException.class})
+            MissingServletRequestParameterException.class, ClassCastException.class,
+            ConstraintViolationException.class, JsonProcessingException.class, RuntimeJsonMappingException.class})
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleException(final Throwable e) {
         log.error(e.getMessage());
         return new ErrorResponse(e.getMessage());
     }
 
+    @ExceptionHandler(IngestionOverloadException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handleOverload(final IngestionOverloadException e) {
+        log.warn(e.getMessage());
+        return new ErrorResponse(e.getMessage());
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handleThrowable(final Throwable e) {
@@ -0,0 +1,17 @@
+package ru.practicum.server.model;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+@Value
+public class HourlyBucket {
+    String app;
+    String uri;
+    LocalDateTime bucketStart;
+
+    public static HourlyBucket of(String app, String uri, LocalDateTime timestamp) {
+        return new HourlyBucket(app, uri, timestamp.truncatedTo(ChronoUnit.HOURS));
+    }
+}
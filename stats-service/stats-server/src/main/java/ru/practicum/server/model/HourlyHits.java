@@ -0,0 +1,18 @@
+package ru.practicum.server.model;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.dto.sketch.HyperLogLog;
+
+@Getter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class HourlyHits {
+    long hits;
+    final HyperLogLog ipSketch = new HyperLogLog();
+
+    public void add(String ip) {
+        hits++;
+        ipSketch.add(ip);
+    }
+}
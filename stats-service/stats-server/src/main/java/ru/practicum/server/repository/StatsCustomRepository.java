@@ -0,0 +1,17 @@
+package ru.practicum.server.repository;
+
+import ru.practicum.dto.model.ViewStats;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface StatsCustomRepository {
+    char LIKE_ESCAPE = '\\';
+
+    List<ViewStats> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, String uriPrefix,
+                             boolean byApp, boolean unique, long minHits, int offset, Integer limit);
+
+    static String prefixPattern(String uriPrefix) {
+        return uriPrefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+}
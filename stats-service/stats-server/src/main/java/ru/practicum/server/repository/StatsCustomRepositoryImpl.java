@@ -0,0 +1,62 @@
+package ru.practicum.server.repository;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.dto.model.ViewStats;
+import ru.practicum.server.model.Stats;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class StatsCustomRepositoryImpl implements StatsCustomRepository {
+    @PersistenceContext
+    EntityManager entityManager;
+
+    public List<ViewStats> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, String uriPrefix,
+                                    boolean byApp, boolean unique, long minHits, int offset, Integer limit) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> criteriaQuery = criteriaBuilder.createTupleQuery();
+        Root<Stats> root = criteriaQuery.from(Stats.class);
+        Path<String> app = root.get("app");
+        Path<String> uri = root.get("uri");
+        Expression<Long> hits = unique ? criteriaBuilder.countDistinct(root.get("ip")) : criteriaBuilder.count(root.get("ip"));
+        Predicate predicate = criteriaBuilder.between(root.get("timestamp"), start, end);
+        if (uris != null && !uris.isEmpty()) {
+            predicate = criteriaBuilder.and(predicate, uri.in(uris));
+        }
+        if (uriPrefix != null && !uriPrefix.isEmpty()) {
+            predicate = criteriaBuilder.and(predicate, criteriaBuilder.like(uri,
+                    StatsCustomRepository.prefixPattern(uriPrefix), LIKE_ESCAPE));
+        }
+        if (byApp) {
+            criteriaQuery.multiselect(app, uri, hits).groupBy(app, uri)
+                    .orderBy(criteriaBuilder.desc(hits), criteriaBuilder.asc(app), criteriaBuilder.asc(uri));
+        } else {
+            criteriaQuery.multiselect(uri, hits).groupBy(uri)
+                    .orderBy(criteriaBuilder.desc(hits), criteriaBuilder.asc(uri));
+        }
+        criteriaQuery.where(predicate);
+        if (minHits > 0) {
+            criteriaQuery.having(criteriaBuilder.ge(hits, minHits));
+        }
+        TypedQuery<Tuple> query = entityManager.createQuery(criteriaQuery).setFirstResult(offset);
+        if (limit != null) {
+            query.setMaxResults(limit);
+        }
+        return query.getResultList().stream()
+                .map(tuple -> new ViewStats(byApp ? tuple.get(app) : null, tuple.get(uri), tuple.get(hits)))
+                .collect(Collectors.toList());
+    }
+}
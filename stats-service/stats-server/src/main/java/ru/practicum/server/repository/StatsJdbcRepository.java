@@ -0,0 +1,37 @@
+package ru.practicum.server.repository;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.server.model.Stats;
+
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class StatsJdbcRepository {
+    static final String INSERT_STATS = "INSERT INTO stats (app, uri, ip, time_stamp) VALUES ";
+    static final String STATS_ROW = "(?, ?, ?, ?)";
+    final JdbcTemplate jdbcTemplate;
+
+    public void insertAll(List<Stats> hits) {
+        if (hits.isEmpty()) {
+            return;
+        }
+        String sql = INSERT_STATS + String.join(", ", Collections.nCopies(hits.size(), STATS_ROW));
+        jdbcTemplate.update(sql, ps -> {
+            int index = 1;
+            for (Stats hit : hits) {
+                ps.setString(index++, hit.getApp());
+                ps.setString(index++, hit.getUri());
+                ps.setString(index++, hit.getIp());
+                ps.setTimestamp(index++, Timestamp.valueOf(hit.getTimestamp()));
+            }
+        });
+    }
+}
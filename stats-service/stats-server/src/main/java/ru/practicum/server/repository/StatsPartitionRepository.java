@@ -0,0 +1,138 @@
+package ru.practicum.server.repository;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class StatsPartitionRepository {
+    static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    final JdbcTemplate jdbcTemplate;
+
+    public boolean isPostgres() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equals(product);
+    }
+
+    public boolean hasPrimaryKey() {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.table_constraints " +
+                "WHERE table_schema = 'public' AND table_name = 'stats' AND constraint_type = 'PRIMARY KEY'",
+                Integer.class);
+        return count != null && count > 0;
+    }
+
+    public void addPrimaryKey() {
+        jdbcTemplate.execute("ALTER TABLE stats ADD CONSTRAINT pk_stats PRIMARY KEY (id)");
+    }
+
+    public boolean isPartitioned() {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_partitioned_table " +
+                "WHERE partrelid = 'public.stats'::regclass", Integer.class);
+        return count != null && count > 0;
+    }
+
+    public void renameToUnpartitioned() {
+        jdbcTemplate.execute("ALTER TABLE stats RENAME TO stats_unpartitioned");
+        jdbcTemplate.execute("ALTER INDEX IF EXISTS pk_stats RENAME TO pk_stats_unpartitioned");
+        jdbcTemplate.execute("ALTER INDEX IF EXISTS idx_stats_time_stamp_uri_app RENAME TO idx_stats_unpartitioned");
+    }
+
+    public void createPartitionedTable() {
+        jdbcTemplate.execute("CREATE TABLE stats (" +
+                "id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL, " +
+                "app VARCHAR(100), " +
+                "uri VARCHAR(100), " +
+                "ip VARCHAR(100), " +
+                "time_stamp TIMESTAMP WITHOUT TIME ZONE NOT NULL, " +
+                "CONSTRAINT pk_stats PRIMARY KEY (id, time_stamp)" +
+                ") PARTITION BY RANGE (time_stamp)");
+        jdbcTemplate.execute("CREATE INDEX idx_stats_time_stamp_uri_app ON stats (time_stamp, uri, app)");
+        jdbcTemplate.execute("CREATE TABLE stats_default PARTITION OF stats DEFAULT");
+    }
+
+    public Optional<LocalDateTime> findOldestUnpartitionedHit() {
+        Timestamp oldest = jdbcTemplate.queryForObject("SELECT MIN(time_stamp) FROM stats_unpartitioned",
+                Timestamp.class);
+        return Optional.ofNullable(oldest).map(Timestamp::toLocalDateTime);
+    }
+
+    public int countUnpartitionedWithoutTimestamp() {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stats_unpartitioned " +
+                "WHERE time_stamp IS NULL", Integer.class);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Copies the hits that have a {@code time_stamp}; the partition key is NOT NULL, and hits without one
+     * never matched a time range anyway.
+     */
+    public int copyFromUnpartitioned() {
+        int copied = jdbcTemplate.update("INSERT INTO stats (id, app, uri, ip, time_stamp) " +
+                "SELECT id, app, uri, ip, time_stamp FROM stats_unpartitioned WHERE time_stamp IS NOT NULL");
+        jdbcTemplate.queryForObject("SELECT setval(pg_get_serial_sequence('stats', 'id'), " +
+                "COALESCE(MAX(id), 0) + 1, false) FROM stats", Long.class);
+        jdbcTemplate.execute("DROP TABLE stats_unpartitioned");
+        return copied;
+    }
+
+    public void createPartition(YearMonth month) {
+        jdbcTemplate.execute(String.format("CREATE TABLE IF NOT EXISTS %s PARTITION OF stats " +
+                        "FOR VALUES FROM ('%s') TO ('%s')", partitionName(month),
+                Timestamp.valueOf(month.atDay(1).atStartOfDay()),
+                Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay())));
+    }
+
+    public boolean partitionExists(YearMonth month) {
+        Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class,
+                "public." + partitionName(month));
+        return Boolean.TRUE.equals(exists);
+    }
+
+    /**
+     * Creates the partition as a plain table, moves the month's hits out of {@code stats_default} into it
+     * and attaches it. PostgreSQL refuses to create a partition whose range still has rows in the default
+     * partition, which late or backdated hits cause. The default partition is locked first, so no hit for
+     * the month can reach it between the move and the attach. Must run in a transaction.
+     */
+    public int createPartitionFromDefault(YearMonth month) {
+        String name = partitionName(month);
+        Timestamp from = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+        Timestamp to = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+        jdbcTemplate.execute("LOCK TABLE stats_default IN SHARE ROW EXCLUSIVE MODE");
+        jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE stats)");
+        int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM stats_default " +
+                "WHERE time_stamp >= ? AND time_stamp < ? RETURNING id, app, uri, ip, time_stamp) " +
+                "INSERT INTO " + name + " (id, app, uri, ip, time_stamp) " +
+                "SELECT id, app, uri, ip, time_stamp FROM moved", from, to);
+        jdbcTemplate.execute(String.format("ALTER TABLE stats ATTACH PARTITION %s FOR VALUES FROM ('%s') TO ('%s')",
+                name, from, to));
+        return moved;
+    }
+
+    public List<String> findPartitions() {
+        return jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE i.inhparent = 'public.stats'::regclass", String.class);
+    }
+
+    public void dropPartition(String name) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + name);
+    }
+
+    public String partitionName(YearMonth month) {
+        return "stats_" + month.format(PARTITION_SUFFIX);
+    }
+}
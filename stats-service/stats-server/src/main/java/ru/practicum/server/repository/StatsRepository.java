@@ -1,41 +1,7 @@
 package ru.practicum.server.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
-import ru.practicum.dto.model.ViewStats;
 import ru.practicum.server.model.Stats;
 
-import java.time.LocalDateTime;
-import java.util.List;
-
-public interface StatsRepository extends JpaRepository<Stats, Long> {
-    @Query("SELECT new ru.practicum.dto.model.ViewStats(s.app, s.uri, COUNT(s.ip)) " +
-            "FROM Stats as s " +
-            "WHERE s.timestamp BETWEEN ?1 and ?2 " +
-            "GROUP BY s.app, s.uri " +
-            "ORDER BY COUNT(s.ip) DESC")
-    List<ViewStats> getStats(LocalDateTime start, LocalDateTime end);
-
-    @Query("SELECT new ru.practicum.dto.model.ViewStats(s.app, s.uri, COUNT(DISTINCT s.ip)) " +
-            "FROM Stats as s " +
-            "WHERE s.timestamp BETWEEN ?1 and ?2 " +
-            "GROUP BY s.app, s.uri " +
-            "ORDER BY COUNT(DISTINCT s.ip) DESC")
-    List<ViewStats> getStatsWithUniqueIp(LocalDateTime start, LocalDateTime end);
-
-    @Query("SELECT new ru.practicum.dto.model.ViewStats(s.app, s.uri, COUNT(s.ip)) " +
-            "FROM Stats as s " +
-            "WHERE s.timestamp BETWEEN ?1 and ?2 " +
-            "AND s.uri IN (?3) " +
-            "GROUP BY s.app, s.uri " +
-            "ORDER BY COUNT(s.ip) DESC")
-    List<ViewStats> getStatsAndUris(LocalDateTime start, LocalDateTime end, List<String> uris);
-
-    @Query("SELECT new ru.practicum.dto.model.ViewStats(s.app, s.uri, COUNT(DISTINCT s.ip)) " +
-            "FROM Stats as s " +
-            "WHERE s.timestamp BETWEEN ?1 and ?2 " +
-            "AND s.uri IN (?3) " +
-            "GROUP BY s.app, s.uri " +
-            "ORDER BY COUNT(DISTINCT s.ip) DESC")
-    List<ViewStats> getStatsAndUrisWithUniqueIp(LocalDateTime start, LocalDateTime end, List<String> uris);
+public interface StatsRepository extends JpaRepository<Stats, Long>, StatsCustomRepository {
 }
@@ -0,0 +1,160 @@
+package ru.practicum.server.repository;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.dto.model.ViewStats;
+import ru.practicum.dto.sketch.HyperLogLog;
+import ru.practicum.server.model.HourlyBucket;
+import ru.practicum.server.model.HourlyHits;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Repository
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class StatsRollupRepository {
+    static final String UPDATE_HITS = "UPDATE stats_hourly SET hits = hits + :hits, ip_sketch = :ipSketch " +
+            "WHERE app = :app AND uri = :uri AND bucket_start = :bucketStart";
+    static final String INSERT_HITS = "INSERT INTO stats_hourly (app, uri, bucket_start, hits, ip_sketch) " +
+            "VALUES (:app, :uri, :bucketStart, :hits, :ipSketch)";
+    final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public void addHits(Map<HourlyBucket, HourlyHits> hits) {
+        if (hits.isEmpty()) {
+            return;
+        }
+        mergeStoredSketches(hits);
+        List<MapSqlParameterSource> params = new ArrayList<>(hits.size());
+        hits.forEach((bucket, bucketHits) -> params.add(toParams(bucket, bucketHits)));
+        MapSqlParameterSource[] batch = params.toArray(new MapSqlParameterSource[0]);
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE_HITS, batch);
+        List<MapSqlParameterSource> missing = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                missing.add(batch[i]);
+            }
+        }
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_HITS, missing.toArray(new MapSqlParameterSource[0]));
+        }
+    }
+
+    public void insertHits(Map<HourlyBucket, HourlyHits> hits) {
+        List<MapSqlParameterSource> params = new ArrayList<>(hits.size());
+        hits.forEach((bucket, bucketHits) -> params.add(toParams(bucket, bucketHits)));
+        jdbcTemplate.batchUpdate(INSERT_HITS, params.toArray(new MapSqlParameterSource[0]));
+    }
+
+    public List<ViewStats> getHits(LocalDateTime from, LocalDateTime to, List<String> uris, String uriPrefix) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("from", Timestamp.valueOf(from))
+                .addValue("to", Timestamp.valueOf(to));
+        StringBuilder sql = new StringBuilder("SELECT app, uri, SUM(hits) AS hits FROM stats_hourly " +
+                "WHERE bucket_start >= :from AND bucket_start < :to");
+        appendUriFilter(sql, params, uris, uriPrefix);
+        sql.append(" GROUP BY app, uri");
+        return jdbcTemplate.query(sql.toString(), params, (rs, rowNum) ->
+                new ViewStats(rs.getString("app"), rs.getString("uri"), rs.getLong("hits")));
+    }
+
+    public LocalDateTime findFirstBucketStart() {
+        Timestamp first = jdbcTemplate.getJdbcTemplate().queryForObject(
+                "SELECT MIN(bucket_start) FROM stats_hourly", Timestamp.class);
+        return first == null ? null : first.toLocalDateTime();
+    }
+
+    public LocalDateTime findFirstRawHit() {
+        Timestamp first = jdbcTemplate.getJdbcTemplate().queryForObject("SELECT MIN(time_stamp) FROM stats",
+                Timestamp.class);
+        return first == null ? null : first.toLocalDateTime();
+    }
+
+    public void deleteHits(LocalDateTime from, LocalDateTime to) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("from", Timestamp.valueOf(from))
+                .addValue("to", Timestamp.valueOf(to));
+        jdbcTemplate.update("DELETE FROM stats_hourly WHERE bucket_start >= :from AND bucket_start < :to", params);
+    }
+
+    public void scanIpSketches(LocalDateTime from, LocalDateTime to, List<String> uris, String uriPrefix,
+                               RowCallbackHandler handler) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("from", Timestamp.valueOf(from))
+                .addValue("to", Timestamp.valueOf(to));
+        StringBuilder sql = new StringBuilder("SELECT app, uri, ip_sketch FROM stats_hourly " +
+                "WHERE bucket_start >= :from AND bucket_start < :to");
+        appendUriFilter(sql, params, uris, uriPrefix);
+        jdbcTemplate.query(sql.toString(), params, handler);
+    }
+
+    public void scanRawHits(LocalDateTime start, LocalDateTime end, List<String> uris, String uriPrefix,
+                            RowCallbackHandler handler) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("start", Timestamp.valueOf(start))
+                .addValue("end", Timestamp.valueOf(end));
+        StringBuilder sql = new StringBuilder("SELECT app, uri, ip FROM stats WHERE time_stamp BETWEEN :start AND :end");
+        appendUriFilter(sql, params, uris, uriPrefix);
+        jdbcTemplate.query(sql.toString(), params, handler);
+    }
+
+    public void scanRawHits(LocalDateTime from, LocalDateTime to, RowCallbackHandler handler) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("from", Timestamp.valueOf(from))
+                .addValue("to", Timestamp.valueOf(to));
+        jdbcTemplate.query("SELECT app, uri, ip, time_stamp FROM stats WHERE time_stamp >= :from AND time_stamp < :to",
+                params, handler);
+    }
+
+    private void appendUriFilter(StringBuilder sql, MapSqlParameterSource params, List<String> uris,
+                                 String uriPrefix) {
+        if (uris != null && !uris.isEmpty()) {
+            sql.append(" AND uri IN (:uris)");
+            params.addValue("uris", uris);
+        }
+        if (uriPrefix != null && !uriPrefix.isEmpty()) {
+            sql.append(" AND uri LIKE :uriPrefix ESCAPE '").append(StatsCustomRepository.LIKE_ESCAPE).append("'");
+            params.addValue("uriPrefix", StatsCustomRepository.prefixPattern(uriPrefix));
+        }
+    }
+
+    private void mergeStoredSketches(Map<HourlyBucket, HourlyHits> hits) {
+        Set<Timestamp> bucketStarts = new HashSet<>();
+        Set<String> uris = new HashSet<>();
+        hits.keySet().forEach(bucket -> {
+            bucketStarts.add(Timestamp.valueOf(bucket.getBucketStart()));
+            uris.add(bucket.getUri());
+        });
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("bucketStarts", bucketStarts)
+                .addValue("uris", uris);
+        jdbcTemplate.query("SELECT app, uri, bucket_start, ip_sketch FROM stats_hourly " +
+                "WHERE bucket_start IN (:bucketStarts) AND uri IN (:uris) FOR UPDATE", params, rs -> {
+            HourlyHits bucketHits = hits.get(new HourlyBucket(rs.getString("app"), rs.getString("uri"),
+                    rs.getTimestamp("bucket_start").toLocalDateTime()));
+            byte[] sketch = rs.getBytes("ip_sketch");
+            if (bucketHits != null && sketch != null) {
+                bucketHits.getIpSketch().merge(HyperLogLog.fromBytes(sketch));
+            }
+        });
+    }
+
+    private MapSqlParameterSource toParams(HourlyBucket bucket, HourlyHits bucketHits) {
+        return new MapSqlParameterSource()
+                .addValue("app", bucket.getApp())
+                .addValue("uri", bucket.getUri())
+                .addValue("bucketStart", Timestamp.valueOf(bucket.getBucketStart()))
+                .addValue("hits", bucketHits.getHits())
+                .addValue("ipSketch", bucketHits.getIpSketch().toBytes());
+    }
+}
@@ -0,0 +1,186 @@
+package ru.practicum.server.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.server.exception.IngestionOverloadException;
+import ru.practicum.server.model.Stats;
+import ru.practicum.server.repository.StatsJdbcRepository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded buffer between {@code POST /hit} and the database. Hits are written by a background
+ * flusher in multi-row batches once {@code batch-size} hits are queued or {@code flush-interval-ms}
+ * has passed. When the queue is full producers wait up to {@code offer-timeout-ms} and are then
+ * rejected with {@link IngestionOverloadException}. A second background thread backfills the hourly rollup,
+ * see {@link HourlyRollup#backfill}.
+ */
+@Component
+@DependsOn("statsPartitionManager")
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class HitIngestionQueue {
+    final StatsJdbcRepository statsJdbcRepository;
+    final HourlyRollup hourlyRollup;
+    final TransactionTemplate transactionTemplate;
+    final BlockingQueue<Stats> queue;
+    final int batchSize;
+    final long flushIntervalMs;
+    final long offerTimeoutMs;
+    final int backfillChunkHours;
+    final Timer flushTimer;
+    final Counter rejectedCounter;
+    final Counter failedCounter;
+    final ReentrantLock flushLock = new ReentrantLock();
+    final Object flushSignal = new Object();
+    volatile boolean running;
+    Thread flusher;
+    Thread backfiller;
+
+    public HitIngestionQueue(StatsJdbcRepository statsJdbcRepository,
+                             HourlyRollup hourlyRollup,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${stats.ingest.queue-capacity}") int queueCapacity,
+                             @Value("${stats.ingest.batch-size}") int batchSize,
+                             @Value("${stats.ingest.flush-interval-ms}") long flushIntervalMs,
+                             @Value("${stats.ingest.offer-timeout-ms}") long offerTimeoutMs,
+                             @Value("${stats.rollup.backfill-chunk-hours}") int backfillChunkHours) {
+        this.statsJdbcRepository = statsJdbcRepository;
+        this.hourlyRollup = hourlyRollup;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.backfillChunkHours = backfillChunkHours;
+        Gauge.builder("stats.ingest.queue.depth", queue, BlockingQueue::size)
+                .description("Hits waiting to be written")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("stats.ingest.flush.latency")
+                .description("Time spent writing one batch of hits")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("stats.ingest.rejected")
+                .description("Hits rejected because the queue was full")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("stats.ingest.failed")
+                .description("Hits lost because a batch could not be written")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        flusher = new Thread(this::runFlusher, "stats-ingest-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        backfiller = new Thread(this::runBackfill, "stats-rollup-backfill");
+        backfiller.setDaemon(true);
+        backfiller.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        flusher.interrupt();
+        backfiller.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(5));
+        backfiller.join(TimeUnit.SECONDS.toMillis(5));
+        flush();
+    }
+
+    public void enqueue(Stats hit) {
+        try {
+            if (!queue.offer(hit, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                rejectedCounter.increment();
+                throw new IngestionOverloadException("Hit queue is full");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IngestionOverloadException("Interrupted while waiting for hit queue");
+        }
+        if (queue.size() >= batchSize) {
+            synchronized (flushSignal) {
+                flushSignal.notifyAll();
+            }
+        }
+    }
+
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<Stats> batch = new ArrayList<>(batchSize);
+            while (queue.drainTo(batch, batchSize) > 0) {
+                write(batch);
+                batch.clear();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void write(List<Stats> batch) {
+        try {
+            flushTimer.record(() -> transactionTemplate.executeWithoutResult(status -> {
+                statsJdbcRepository.insertAll(batch);
+                hourlyRollup.record(batch);
+            }));
+            log.debug("Flushed {} hits", batch.size());
+        } catch (RuntimeException e) {
+            failedCounter.increment(batch.size());
+            log.error("Failed to write {} hits: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    private void writeExclusively(Runnable write) {
+        flushLock.lock();
+        try {
+            transactionTemplate.executeWithoutResult(status -> write.run());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void runBackfill() {
+        try {
+            hourlyRollup.backfill(backfillChunkHours, this::writeExclusively);
+        } catch (RuntimeException e) {
+            log.error("Hourly rollup backfill failed, older hours are read from raw hits: {}", e.getMessage());
+        }
+    }
+
+    private void runFlusher() {
+        while (running) {
+            try {
+                synchronized (flushSignal) {
+                    if (queue.size() < batchSize) {
+                        flushSignal.wait(flushIntervalMs);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            flush();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package ru.practicum.server.service;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.practicum.dto.model.ViewStats;
+import ru.practicum.dto.sketch.HyperLogLog;
+import ru.practicum.server.model.AppUri;
+import ru.practicum.server.model.HourlyBucket;
+import ru.practicum.server.model.HourlyHits;
+import ru.practicum.server.model.Stats;
+import ru.practicum.server.repository.StatsRollupRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Maintains per-(app, uri, hour) hit counts and HyperLogLog sketches of visitor ips in {@code stats_hourly}.
+ * Buckets are updated in the same transaction that writes a batch of raw hits, so the rollup never runs
+ * ahead of {@code stats}. Buckets for hits written before the rollup existed are backfilled in the background.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class HourlyRollup {
+    final StatsRollupRepository statsRollupRepository;
+    volatile LocalDateTime completeFrom = LocalDateTime.MAX;
+
+    public void record(List<Stats> hits) {
+        Map<HourlyBucket, HourlyHits> buckets = new HashMap<>();
+        hits.forEach(hit -> add(buckets, hit.getApp(), hit.getUri(), hit.getIp(), hit.getTimestamp()));
+        statsRollupRepository.addHits(buckets);
+    }
+
+    public List<ViewStats> getHits(LocalDateTime fromHour, LocalDateTime toHour, List<String> uris,
+                                   String uriPrefix) {
+        return statsRollupRepository.getHits(fromHour, toHour, uris, uriPrefix);
+    }
+
+    public Map<AppUri, HyperLogLog> getIpSketches(LocalDateTime fromHour, LocalDateTime toHour, List<String> uris,
+                                                  String uriPrefix) {
+        Map<AppUri, HyperLogLog> sketches = new HashMap<>();
+        statsRollupRepository.scanIpSketches(fromHour, toHour, uris, uriPrefix, rs -> {
+            byte[] sketch = rs.getBytes("ip_sketch");
+            HyperLogLog merged = sketches.computeIfAbsent(new AppUri(rs.getString("app"), rs.getString("uri")),
+                    key -> new HyperLogLog());
+            if (sketch != null) {
+                merged.merge(HyperLogLog.fromBytes(sketch));
+            }
+        });
+        return sketches;
+    }
+
+    public void addRawIps(Map<AppUri, HyperLogLog> sketches, LocalDateTime start, LocalDateTime end,
+                          List<String> uris, String uriPrefix) {
+        statsRollupRepository.scanRawHits(start, end, uris, uriPrefix, rs -> sketches.computeIfAbsent(
+                new AppUri(rs.getString("app"), rs.getString("uri")), key -> new HyperLogLog()).add(rs.getString("ip")));
+    }
+
+    /**
+     * Whether the buckets from the given hour on hold every raw hit. Hours the backfill has not reached yet
+     * have to be read from raw hits.
+     */
+    public boolean covers(LocalDateTime fromHour) {
+        return !fromHour.isBefore(completeFrom);
+    }
+
+    /**
+     * Rebuilds the hours missing from the rollup from raw hits, newest first and {@code chunkHours} at a time,
+     * so neither memory nor a transaction grows with the table. Missing are the hours from the first raw hit up
+     * to the oldest bucket, including that bucket's hour, which live hits may have opened before the backfill
+     * started; a backfill that was stopped thus resumes where it stopped. {@code writer} runs each chunk in a
+     * transaction no batch of hits can interleave with. The chunk replaces its buckets, so hits flushed into
+     * them earlier are counted once.
+     */
+    public void backfill(int chunkHours, Consumer<Runnable> writer) {
+        LocalDateTime firstHit = statsRollupRepository.findFirstRawHit();
+        LocalDateTime firstBucket = statsRollupRepository.findFirstBucketStart();
+        if (firstHit == null || firstBucket != null && !firstBucket.isAfter(firstHit)) {
+            completeFrom = LocalDateTime.MIN;
+            return;
+        }
+        LocalDateTime firstHour = firstHit.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime to = (firstBucket == null ? LocalDateTime.now().truncatedTo(ChronoUnit.HOURS) : firstBucket)
+                .plusHours(1);
+        completeFrom = to;
+        while (to.isAfter(firstHour)) {
+            if (Thread.currentThread().isInterrupted()) {
+                log.info("Hourly rollup backfill stopped at {}", to);
+                return;
+            }
+            LocalDateTime from = to.minusHours(chunkHours).isAfter(firstHour) ? to.minusHours(chunkHours) : firstHour;
+            LocalDateTime chunkEnd = to;
+            writer.accept(() -> rebuild(from, chunkEnd));
+            completeFrom = from;
+            to = from;
+        }
+        completeFrom = LocalDateTime.MIN;
+        log.info("Hourly rollup rebuilt from raw hits since {}", firstHour);
+    }
+
+    private void rebuild(LocalDateTime fromHour, LocalDateTime toHour) {
+        Map<HourlyBucket, HourlyHits> buckets = new HashMap<>();
+        statsRollupRepository.scanRawHits(fromHour, toHour, rs -> add(buckets, rs.getString("app"),
+                rs.getString("uri"), rs.getString("ip"), rs.getTimestamp("time_stamp").toLocalDateTime()));
+        statsRollupRepository.deleteHits(fromHour, toHour);
+        statsRollupRepository.insertHits(buckets);
+        log.debug("Hourly rollup rebuilt for {} - {}, {} buckets", fromHour, toHour, buckets.size());
+    }
+
+    private void add(Map<HourlyBucket, HourlyHits> buckets, String app, String uri, String ip,
+                     LocalDateTime timestamp) {
+        buckets.computeIfAbsent(HourlyBucket.of(app, uri, timestamp), bucket -> new HourlyHits()).add(ip);
+    }
+}
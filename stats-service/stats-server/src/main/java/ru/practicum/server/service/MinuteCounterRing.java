@@ -0,0 +1,144 @@
+package ru.practicum.server.service;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.server.model.AppUri;
+import ru.practicum.server.model.Stats;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hit counts per (app, uri) for each of the last {@code horizon-minutes} minutes, kept in memory so short
+ * windows can be answered without the database. Only hits accepted since startup are counted, so minutes
+ * before the first full minute after startup are never covered. A hit stamped later than the current minute
+ * cannot be placed in the ring and makes every minute up to its own uncovered. Counts are per instance,
+ * so the ring must be disabled (horizon 0) when several stats-server instances share one database.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class MinuteCounterRing {
+    final int horizonMinutes;
+    final int maxKeys;
+    final AtomicReferenceArray<MinuteBucket> buckets;
+    final Map<AppUri, AppUri> keys = new ConcurrentHashMap<>();
+    final AtomicLong coveredFrom;
+
+    public MinuteCounterRing(@Value("${stats.ring.horizon-minutes}") int horizonMinutes,
+                             @Value("${stats.ring.max-keys}") int maxKeys) {
+        this.horizonMinutes = horizonMinutes;
+        this.maxKeys = maxKeys;
+        this.buckets = new AtomicReferenceArray<>(horizonMinutes + 2);
+        this.coveredFrom = new AtomicLong(toMinute(LocalDateTime.now()) + 1);
+    }
+
+    public void record(Stats hit) {
+        if (horizonMinutes <= 0) {
+            return;
+        }
+        long minute = toMinute(hit.getTimestamp());
+        long current = toMinute(LocalDateTime.now());
+        if (minute > current) {
+            coveredFrom.accumulateAndGet(minute + 1, Math::max);
+            return;
+        }
+        if (minute < coveredFrom.get() || minute <= current - horizonMinutes) {
+            return;
+        }
+        MinuteBucket bucket = bucketFor(minute);
+        if (bucket != null) {
+            bucket.counters.computeIfAbsent(intern(hit.getApp(), hit.getUri()), key -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Whether every minute in [from, to) is held by the ring; both bounds must be whole minutes.
+     */
+    public boolean covers(LocalDateTime from, LocalDateTime to) {
+        if (horizonMinutes <= 0) {
+            return false;
+        }
+        long fromMinute = toMinute(from);
+        long current = toMinute(LocalDateTime.now());
+        return fromMinute >= coveredFrom.get()
+                && fromMinute > current - horizonMinutes
+                && toMinute(to) <= current + 1;
+    }
+
+    public Map<AppUri, Long> getHits(LocalDateTime from, LocalDateTime to, List<String> uris, String uriPrefix) {
+        Set<String> uriFilter = uris == null || uris.isEmpty() ? null : new HashSet<>(uris);
+        Map<AppUri, Long> hits = new HashMap<>();
+        for (long minute = toMinute(from); minute < toMinute(to); minute++) {
+            MinuteBucket bucket = buckets.get(slot(minute));
+            if (bucket == null || bucket.minute != minute) {
+                continue;
+            }
+            bucket.counters.forEach((key, counter) -> {
+                if ((uriFilter == null || uriFilter.contains(key.getUri()))
+                        && (uriPrefix == null || key.getUri().startsWith(uriPrefix))) {
+                    hits.merge(key, counter.sum(), Long::sum);
+                }
+            });
+        }
+        return hits;
+    }
+
+    private MinuteBucket bucketFor(long minute) {
+        int slot = slot(minute);
+        while (true) {
+            MinuteBucket bucket = buckets.get(slot);
+            if (bucket != null && bucket.minute == minute) {
+                return bucket;
+            }
+            if (bucket != null && bucket.minute > minute) {
+                return null;
+            }
+            MinuteBucket fresh = new MinuteBucket(minute);
+            if (buckets.compareAndSet(slot, bucket, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    /**
+     * Shares one key per (app, uri) between minute buckets. Once {@code max-keys} keys are interned, new ones
+     * are used as they are: counts stay the same, only each bucket holds its own copy of such a key.
+     */
+    private AppUri intern(String app, String uri) {
+        AppUri key = new AppUri(app, uri);
+        AppUri interned = keys.get(key);
+        if (interned != null || keys.size() >= maxKeys) {
+            return interned == null ? key : interned;
+        }
+        interned = keys.putIfAbsent(key, key);
+        return interned == null ? key : interned;
+    }
+
+    private int slot(long minute) {
+        return (int) Math.floorMod(minute, (long) buckets.length());
+    }
+
+    private static long toMinute(LocalDateTime dateTime) {
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60L);
+    }
+
+    private static class MinuteBucket {
+        final long minute;
+        final Map<AppUri, LongAdder> counters = new ConcurrentHashMap<>();
+
+        MinuteBucket(long minute) {
+            this.minute = minute;
+        }
+    }
+}
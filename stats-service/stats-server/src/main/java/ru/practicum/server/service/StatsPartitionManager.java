@@ -0,0 +1,126 @@
+package ru.practicum.server.service;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.server.repository.StatsPartitionRepository;
+
+import javax.annotation.PostConstruct;
+import java.time.YearMonth;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Upgrades the PostgreSQL {@code stats} table on startup: adds the primary key to tables created before it
+ * existed and, with {@code stats.partitioning.enabled}, converts the table to monthly range partitions.
+ * Partitions for the next {@code months-ahead} months are created on schedule, and partitions older than
+ * {@code retention-months} are dropped (0 keeps everything). Hits outside the created months land in
+ * {@code stats_default}.
+ */
+@Component
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class StatsPartitionManager {
+    static final Pattern PARTITION_NAME = Pattern.compile("stats_(\\d{4})_(\\d{2})");
+    final StatsPartitionRepository statsPartitionRepository;
+    final TransactionTemplate transactionTemplate;
+    final boolean enabled;
+    final int monthsAhead;
+    final int retentionMonths;
+    boolean postgres;
+
+    public StatsPartitionManager(StatsPartitionRepository statsPartitionRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${stats.partitioning.enabled}") boolean enabled,
+                                 @Value("${stats.partitioning.months-ahead}") int monthsAhead,
+                                 @Value("${stats.partitioning.retention-months}") int retentionMonths) {
+        this.statsPartitionRepository = statsPartitionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @PostConstruct
+    public void upgradeSchema() {
+        postgres = statsPartitionRepository.isPostgres();
+        if (!postgres) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            boolean partitioned = statsPartitionRepository.isPartitioned();
+            if (!partitioned && !statsPartitionRepository.hasPrimaryKey()) {
+                statsPartitionRepository.addPrimaryKey();
+                log.info("Primary key added to stats");
+            }
+            if (enabled && !partitioned) {
+                convertToPartitioned();
+            }
+        });
+        maintainPartitions();
+    }
+
+    @Scheduled(cron = "${stats.partitioning.cron}")
+    public void maintainPartitions() {
+        if (!enabled || !postgres) {
+            return;
+        }
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            createPartition(current.plusMonths(i));
+        }
+        if (retentionMonths > 0) {
+            dropPartitionsBefore(current.minusMonths(retentionMonths));
+        }
+    }
+
+    private void convertToPartitioned() {
+        statsPartitionRepository.renameToUnpartitioned();
+        statsPartitionRepository.createPartitionedTable();
+        YearMonth current = YearMonth.now();
+        YearMonth month = statsPartitionRepository.findOldestUnpartitionedHit()
+                .map(YearMonth::from)
+                .filter(oldest -> oldest.isBefore(current))
+                .orElse(current);
+        for (; !month.isAfter(current.plusMonths(monthsAhead)); month = month.plusMonths(1)) {
+            statsPartitionRepository.createPartition(month);
+        }
+        int skipped = statsPartitionRepository.countUnpartitionedWithoutTimestamp();
+        if (skipped > 0) {
+            log.warn("{} hits without time_stamp are not copied to partitioned stats", skipped);
+        }
+        int copied = statsPartitionRepository.copyFromUnpartitioned();
+        log.info("stats converted to monthly partitions, {} hits copied", copied);
+    }
+
+    private void createPartition(YearMonth month) {
+        if (statsPartitionRepository.partitionExists(month)) {
+            return;
+        }
+        try {
+            Integer moved = transactionTemplate.execute(status ->
+                    statsPartitionRepository.createPartitionFromDefault(month));
+            log.info("Partition {} created, {} hits moved from stats_default",
+                    statsPartitionRepository.partitionName(month), moved);
+        } catch (RuntimeException e) {
+            log.error("Failed to create partition {}: {}", statsPartitionRepository.partitionName(month),
+                    e.getMessage());
+        }
+    }
+
+    private void dropPartitionsBefore(YearMonth cutoff) {
+        for (String partition : statsPartitionRepository.findPartitions()) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+            if (matcher.matches() && YearMonth.of(Integer.parseInt(matcher.group(1)),
+                    Integer.parseInt(matcher.group(2))).isBefore(cutoff)) {
+                statsPartitionRepository.dropPartition(partition);
+                log.info("Dropped partition {} past retention", partition);
+            }
+        }
+    }
+}
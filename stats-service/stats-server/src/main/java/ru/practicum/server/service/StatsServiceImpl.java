@@ -7,12 +7,31 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.dto.model.EndpointHit;
+import ru.practicum.dto.model.StatsQuery;
 import ru.practicum.dto.model.ViewStats;
+import ru.practicum.dto.sketch.HyperLogLog;
 import ru.practicum.server.mapper.StatsMapper;
+import ru.practicum.server.model.AppUri;
+import ru.practicum.server.model.Stats;
 import ru.practicum.server.repository.StatsRepository;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validator;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -21,29 +40,186 @@ import java.util.List;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class StatsServiceImpl implements StatsService {
     final StatsRepository statsRepository;
+    final HitIngestionQueue hitIngestionQueue;
+    final HourlyRollup hourlyRollup;
+    final MinuteCounterRing minuteCounterRing;
+    final Validator validator;
 
     @Override
-    @Transactional
     public void addHit(EndpointHit endpointHit) {
-        statsRepository.save(StatsMapper.dtoToModel(endpointHit));
-        log.info("Information saved {}", endpointHit);
+        accept(StatsMapper.dtoToModel(endpointHit));
+        log.info("Information accepted {}", endpointHit);
     }
 
+    /**
+     * The whole batch is read and validated before any hit is queued, so a rejected batch leaves nothing
+     * behind and can be retried as is.
+     */
     @Override
-    public List<ViewStats> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique) {
-        log.info("Statistics by parameters start = {}, end = {}, uris = {}, unique = {}", start, end, uris, unique);
-        if (uris == null || uris.isEmpty()) {
-            if (unique) {
-                return statsRepository.getStatsWithUniqueIp(start, end);
-            } else {
-                return statsRepository.getStats(start, end);
+    public void addHits(Iterator<EndpointHit> endpointHits) {
+        List<Stats> hits = new ArrayList<>();
+        while (endpointHits.hasNext()) {
+            EndpointHit endpointHit = endpointHits.next();
+            Set<ConstraintViolation<EndpointHit>> violations = validator.validate(endpointHit);
+            if (!violations.isEmpty()) {
+                throw new ConstraintViolationException(violations);
             }
-        } else {
-            if (unique) {
-                return statsRepository.getStatsAndUrisWithUniqueIp(start, end, uris);
-            } else {
-                return statsRepository.getStatsAndUris(start, end, uris);
+            hits.add(StatsMapper.dtoToModel(endpointHit));
+        }
+        hits.forEach(this::accept);
+        log.info("Information accepted for {} hits", hits.size());
+    }
+
+    /**
+     * With {@code unique} and {@code approximate} set, unique ips for whole hours are estimated by merging
+     * the hourly HyperLogLog sketches, see {@link HyperLogLog} for the error bound. With {@code withSketches}
+     * hits are always such estimates and each row also carries its base64 encoded sketch, so callers can
+     * merge counts of consecutive or overlapping ranges. Reads do not flush the ingestion queue: plain hit
+     * counts over whole minutes come from the minute ring and include queued hits, everything else sees a hit
+     * once the queue has written it, at most {@code flush-interval-ms} later.
+     */
+    @Override
+    public List<ViewStats> getStats(StatsQuery query) {
+        log.info("Statistics by parameters {}", query);
+        LocalDateTime start = query.getStart();
+        LocalDateTime end = query.getEnd();
+        if (query.getWithSketches()) {
+            Map<AppUri, HyperLogLog> sketches = getIpSketches(query);
+            List<ViewStats> stats = select(estimate(sketches), query);
+            stats.forEach(viewStats -> viewStats.setIpSketch(Base64.getEncoder().encodeToString(
+                    sketches.get(new AppUri(viewStats.getApp(), viewStats.getUri())).toBytes())));
+            return stats;
+        }
+        if (!query.getUnique()) {
+            LocalDateTime firstMinute = ceil(start, ChronoUnit.MINUTES);
+            LocalDateTime lastMinute = end.plusSeconds(1).truncatedTo(ChronoUnit.MINUTES);
+            if (firstMinute.isBefore(lastMinute) && minuteCounterRing.covers(firstMinute, lastMinute)) {
+                Map<AppUri, Long> hits = minuteCounterRing.getHits(firstMinute, lastMinute, query.getUris(),
+                        query.getUriPrefix());
+                addRawEdges(hits, firstMinute, lastMinute, query);
+                return select(hits, query);
+            }
+        }
+        LocalDateTime firstHour = ceil(start, ChronoUnit.HOURS);
+        LocalDateTime lastHour = end.plusSeconds(1).truncatedTo(ChronoUnit.HOURS);
+        if (firstHour.isBefore(lastHour) && hourlyRollup.covers(firstHour)) {
+            if (!query.getUnique()) {
+                Map<AppUri, Long> hits = new HashMap<>();
+                hourlyRollup.getHits(firstHour, lastHour, query.getUris(), query.getUriPrefix()).forEach(viewStats ->
+                        hits.put(new AppUri(viewStats.getApp(), viewStats.getUri()), viewStats.getHits()));
+                addRawEdges(hits, firstHour, lastHour, query);
+                return select(hits, query);
+            }
+            if (query.getApproximate()) {
+                return select(estimate(getIpSketches(query)), query);
+            }
+        }
+        if (query.hasIdRange()) {
+            Map<AppUri, Long> hits = new HashMap<>();
+            statsRepository.getStats(start, end, query.getUris(), query.getUriPrefix(), query.groupsByApp(),
+                            query.getUnique(), query.getMinHits(), 0, null)
+                    .forEach(viewStats -> hits.put(new AppUri(viewStats.getApp(), viewStats.getUri()),
+                            viewStats.getHits()));
+            return select(hits, query);
+        }
+        List<ViewStats> stats = statsRepository.getStats(start, end, query.getUris(), query.getUriPrefix(),
+                query.groupsByApp(), query.getUnique(), query.getMinHits(), query.getOffset(), query.getLimit());
+        if (query.getWithIds()) {
+            stats.forEach(viewStats -> viewStats.setId(StatsQuery.parseId(viewStats.getUri(), query.getUriPrefix())));
+        }
+        return stats;
+    }
+
+    private void accept(Stats hit) {
+        hitIngestionQueue.enqueue(hit);
+        minuteCounterRing.record(hit);
+    }
+
+    private void addRawEdges(Map<AppUri, Long> hits, LocalDateTime first, LocalDateTime last, StatsQuery query) {
+        Consumer<ViewStats> merge = viewStats -> hits.merge(new AppUri(viewStats.getApp(), viewStats.getUri()),
+                viewStats.getHits(), Long::sum);
+        if (query.getStart().isBefore(first)) {
+            statsRepository.getStats(query.getStart(), first.minusSeconds(1), query.getUris(), query.getUriPrefix(),
+                    true, false, 0, 0, null).forEach(merge);
+        }
+        if (!last.isAfter(query.getEnd())) {
+            statsRepository.getStats(last, query.getEnd(), query.getUris(), query.getUriPrefix(),
+                    true, false, 0, 0, null).forEach(merge);
+        }
+    }
+
+    private Map<AppUri, HyperLogLog> getIpSketches(StatsQuery query) {
+        LocalDateTime firstHour = ceil(query.getStart(), ChronoUnit.HOURS);
+        LocalDateTime lastHour = query.getEnd().plusSeconds(1).truncatedTo(ChronoUnit.HOURS);
+        Map<AppUri, HyperLogLog> sketches;
+        if (firstHour.isBefore(lastHour) && hourlyRollup.covers(firstHour)) {
+            sketches = hourlyRollup.getIpSketches(firstHour, lastHour, query.getUris(), query.getUriPrefix());
+            if (query.getStart().isBefore(firstHour)) {
+                hourlyRollup.addRawIps(sketches, query.getStart(), firstHour.minusSeconds(1), query.getUris(),
+                        query.getUriPrefix());
+            }
+            if (!lastHour.isAfter(query.getEnd())) {
+                hourlyRollup.addRawIps(sketches, lastHour, query.getEnd(), query.getUris(), query.getUriPrefix());
             }
+        } else {
+            sketches = new HashMap<>();
+            hourlyRollup.addRawIps(sketches, query.getStart(), query.getEnd(), query.getUris(), query.getUriPrefix());
+        }
+        if (query.groupsByApp()) {
+            return sketches;
+        }
+        Map<AppUri, HyperLogLog> byUri = new HashMap<>();
+        sketches.forEach((key, sketch) -> byUri.merge(new AppUri(null, key.getUri()), sketch, HyperLogLog::merge));
+        return byUri;
+    }
+
+    private Map<AppUri, Long> estimate(Map<AppUri, HyperLogLog> sketches) {
+        Map<AppUri, Long> hits = new HashMap<>();
+        sketches.forEach((key, sketch) -> hits.put(key, sketch.estimate()));
+        return hits;
+    }
+
+    private LocalDateTime ceil(LocalDateTime dateTime, ChronoUnit unit) {
+        LocalDateTime truncated = dateTime.truncatedTo(unit);
+        return truncated.isBefore(dateTime) ? truncated.plus(1, unit) : truncated;
+    }
+
+    /**
+     * Applies grouping, {@code minHits}, the id range, {@code offset} and {@code limit} to merged counts. With
+     * a limit only the top offset + limit entries are kept, in a heap, instead of sorting every group. Equal
+     * counts are ordered by app and uri, as in the database queries, so pages neither skip nor repeat them.
+     */
+    private List<ViewStats> select(Map<AppUri, Long> hits, StatsQuery query) {
+        if (!query.groupsByApp()) {
+            Map<AppUri, Long> byUri = new HashMap<>();
+            hits.forEach((key, count) -> byUri.merge(new AppUri(null, key.getUri()), count, Long::sum));
+            hits = byUri;
+        }
+        Comparator<Map.Entry<AppUri, Long>> order = Map.Entry.<AppUri, Long>comparingByValue().reversed()
+                .thenComparing(entry -> entry.getKey().getApp(), Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(entry -> entry.getKey().getUri(), Comparator.nullsLast(Comparator.naturalOrder()));
+        Stream<Map.Entry<AppUri, Long>> entries = hits.entrySet().stream()
+                .filter(entry -> entry.getValue() >= query.getMinHits())
+                .filter(entry -> !query.hasIdRange()
+                        || query.acceptsId(StatsQuery.parseId(entry.getKey().getUri(), query.getUriPrefix())));
+        if (query.getLimit() != null) {
+            long size = (long) query.getOffset() + query.getLimit();
+            PriorityQueue<Map.Entry<AppUri, Long>> top = new PriorityQueue<>(order.reversed());
+            entries.forEach(entry -> {
+                if (top.size() < size) {
+                    top.add(entry);
+                } else if (order.compare(entry, top.peek()) < 0) {
+                    top.poll();
+                    top.add(entry);
+                }
+            });
+            entries = top.stream();
         }
+        return entries.sorted(order)
+                .skip(query.getOffset())
+                .map(entry -> new ViewStats(entry.getKey().getApp(), entry.getKey().getUri(), entry.getValue(),
+                        query.getWithIds() ? StatsQuery.parseId(entry.getKey().getUri(), query.getUriPrefix()) : null,
+                        null))
+                .collect(Collectors.toList());
     }
 }
@@ -3,5 +3,6 @@ id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
 app VARCHAR(100),
 uri VARCHAR(100),
 ip VARCHAR(100),
-time_stamp TIMESTAMP WITHOUT TIME ZONE
-);
\ No newline at end of file
+time_stamp TIMESTAMP WITHOUT TIME ZONE,
+CONSTRAINT pk_stats PRIMARY KEY (id)
+);
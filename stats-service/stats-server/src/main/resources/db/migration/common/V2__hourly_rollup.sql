@@ -0,0 +1,8 @@
+CREATE TABLE IF NOT EXISTS stats_hourly (
+app VARCHAR(100) NOT NULL,
+uri VARCHAR(100) NOT NULL,
+bucket_start TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+hits BIGINT NOT NULL,
+ip_sketch BYTEA,
+CONSTRAINT pk_stats_hourly PRIMARY KEY (app, uri, bucket_start)
+);
@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS idx_stats_time_stamp_uri_app ON stats (time_stamp, uri, app);
@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS idx_stats_hourly_uri_bucket_start ON stats_hourly (uri, bucket_start);
@@ -0,0 +1,16 @@
+-- Drops an INVALID leftover of an interrupted build so the CREATE below rebuilds it.
+DO $$
+DECLARE
+  invalid RECORD;
+BEGIN
+  FOR invalid IN SELECT c.relname FROM pg_index i
+    JOIN pg_class c ON c.oid = i.indexrelid
+    JOIN pg_namespace n ON n.oid = c.relnamespace
+    WHERE NOT i.indisvalid AND n.nspname = current_schema()
+      AND c.relname IN ('idx_stats_time_stamp_uri_app')
+  LOOP
+    EXECUTE format('DROP INDEX %I', invalid.relname);
+  END LOOP;
+END $$;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_stats_time_stamp_uri_app ON stats (time_stamp, uri, app);
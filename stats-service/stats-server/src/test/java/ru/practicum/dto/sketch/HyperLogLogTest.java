@@ -0,0 +1,64 @@
+package ru.practicum.dto.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sparse and dense sketches of the same ips give the same estimate, and both encodings survive a round trip
+ * through the bytes stored in {@code stats_hourly.ip_sketch}.
+ */
+class HyperLogLogTest {
+    @Test
+    void fewIpsStaySparse() {
+        HyperLogLog sketch = sketch(0, 10);
+
+        byte[] bytes = sketch.toBytes();
+
+        assertThat(bytes).hasSize(1 + 3 * 10);
+        assertThat(HyperLogLog.fromBytes(bytes).estimate()).isEqualTo(sketch.estimate()).isEqualTo(10);
+    }
+
+    @Test
+    void manyIpsSwitchToDense() {
+        HyperLogLog sketch = sketch(0, 5000);
+
+        byte[] bytes = sketch.toBytes();
+
+        assertThat(bytes).hasSize(2049);
+        assertThat(HyperLogLog.fromBytes(bytes).estimate()).isEqualTo(sketch.estimate());
+        assertThat(sketch.estimate()).isBetween(4500L, 5500L);
+    }
+
+    @Test
+    void mergeMatchesSingleSketchAcrossEncodings() {
+        HyperLogLog all = sketch(0, 3000);
+        HyperLogLog sparse = sketch(0, 100);
+        HyperLogLog dense = sketch(100, 3000);
+
+        assertThat(HyperLogLog.fromBytes(sparse.toBytes()).merge(dense).estimate()).isEqualTo(all.estimate());
+        assertThat(sketch(100, 3000).merge(sketch(0, 100)).toBytes()).isEqualTo(all.toBytes());
+        assertThat(sketch(0, 300).merge(sketch(300, 600)).estimate()).isEqualTo(sketch(0, 600).estimate());
+    }
+
+    @Test
+    void denseBlobOfFewIpsIsStoredSparse() {
+        byte[] dense = new byte[2049];
+        dense[0] = HyperLogLog.PRECISION;
+        dense[1] = 3;
+        dense[2049 - 1] = 1;
+
+        byte[] bytes = HyperLogLog.fromBytes(dense).toBytes();
+
+        assertThat(bytes).hasSize(1 + 3 * 2);
+        assertThat(HyperLogLog.fromBytes(bytes).estimate()).isEqualTo(HyperLogLog.fromBytes(dense).estimate());
+    }
+
+    private HyperLogLog sketch(int from, int to) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = from; i < to; i++) {
+            sketch.add("10." + i / 65536 + "." + i / 256 % 256 + "." + i % 256);
+        }
+        return sketch;
+    }
+}
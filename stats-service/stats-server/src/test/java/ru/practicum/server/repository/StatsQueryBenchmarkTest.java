@@ -0,0 +1,87 @@
+package ru.practicum.server.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.dto.model.ViewStats;
+import ru.practicum.server.model.Stats;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Query time of {@code /stats} against table size. Seeds 10k, 100k and 1M hits spread over 30 days and
+ * times a one-hour window, which the {@code (time_stamp, uri, app)} index serves, and the whole range.
+ * Opt-in: {@code mvn test -Dstats.benchmark=true}.
+ */
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "stats.benchmark", matches = "true")
+class StatsQueryBenchmarkTest {
+    static final int[] SIZES = {10_000, 100_000, 1_000_000};
+    static final int BATCH_SIZE = 500;
+    static final int RUNS = 20;
+    static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+    static final Duration SPAN = Duration.ofDays(30);
+
+    @Autowired
+    StatsRepository statsRepository;
+    @Autowired
+    StatsJdbcRepository statsJdbcRepository;
+
+    @Test
+    void queryTimeBySize() {
+        LocalDateTime windowStart = BASE.plusDays(15);
+        LocalDateTime windowEnd = windowStart.plusHours(1);
+        int seeded = 0;
+        log.info("{} | {} | {}", "hits", "1 hour window, ms", "30 days, ms");
+        for (int size : SIZES) {
+            List<Stats> batch = new ArrayList<>(BATCH_SIZE);
+            for (; seeded < size; seeded++) {
+                LocalDateTime timestamp = BASE.plus(SPAN.multipliedBy(seeded).dividedBy(size));
+                batch.add(new Stats(null, "ewm-main-service", "/events/" + seeded % 1000,
+                        "10.0." + seeded % 256 + "." + seeded % 100, timestamp));
+                if (batch.size() == BATCH_SIZE) {
+                    statsJdbcRepository.insertAll(batch);
+                    batch.clear();
+                }
+            }
+            statsJdbcRepository.insertAll(batch);
+            double window = medianMillis(windowStart, windowEnd);
+            double all = medianMillis(BASE, BASE.plus(SPAN));
+            log.info("{} | {} | {}", size, String.format("%.2f", window), String.format("%.2f", all));
+            assertThat(countHits(windowStart, windowEnd)).isPositive();
+            assertThat(countHits(BASE, BASE.plus(SPAN))).isEqualTo(size);
+        }
+    }
+
+    private long countHits(LocalDateTime start, LocalDateTime end) {
+        return statsRepository.getStats(start, end, null, null, true, false, 0, 0, null).stream()
+                .mapToLong(ViewStats::getHits)
+                .sum();
+    }
+
+    /**
+     * Each run moves the end by a second, H2 would otherwise answer a repeated query from its result cache.
+     */
+    private double medianMillis(LocalDateTime start, LocalDateTime end) {
+        countHits(start, end.minusSeconds(1));
+        long[] times = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long started = System.nanoTime();
+            countHits(start, end.plusSeconds(i));
+            times[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(times);
+        return times[RUNS / 2] / 1_000_000.0;
+    }
+}